@@ -0,0 +1,24 @@
+package com.example.demo;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * 基准测试用的Spring上下文，使用H2内嵌数据库（MySQL兼容模式）
+ */
+public final class BenchmarkContext {
+
+  private BenchmarkContext() {
+  }
+
+  /**
+   * 启动应用上下文，可追加额外配置项（key=value）
+   */
+  public static ConfigurableApplicationContext start(String... properties) {
+    return new SpringApplicationBuilder(Demo1Application.class)
+        .profiles("h2")
+        .properties("server.port=0")
+        .properties(properties)
+        .run();
+  }
+}
@@ -0,0 +1,78 @@
+package com.example.demo;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日志配置对请求延迟的影响：默认同步日志（log4j2.xml + StdOutImpl）对比生产异步日志（log4j2-prod.xml + Log4j2Impl）
+ * 运行: mvn -Pbenchmark test-compile exec:exec -Djmh.args="LoggingLatencyBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoggingLatencyBenchmark {
+
+  @Param({"default", "prod"})
+  public String logging;
+
+  private ConfigurableApplicationContext context;
+  private HttpClient client;
+  private HttpRequest listRequest;
+  private HttpRequest detailRequest;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    if ("prod".equals(logging)) {
+      context = BenchmarkContext.start(
+          "logging.config=classpath:log4j2-prod.xml",
+          "mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.log4j2.Log4j2Impl");
+    } else {
+      context = BenchmarkContext.start(
+          "logging.config=classpath:log4j2.xml",
+          "mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.stdout.StdOutImpl");
+    }
+    String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    client = HttpClient.newHttpClient();
+    listRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/api/forum/posts?page=1&size=10")).GET().build();
+    detailRequest = HttpRequest.newBuilder(URI.create(baseUrl + "/api/forum/posts/1")).GET().build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public String getForumPosts() throws IOException, InterruptedException {
+    return client.send(listRequest, HttpResponse.BodyHandlers.ofString()).body();
+  }
+
+  @Benchmark
+  public String getPostDetail() throws IOException, InterruptedException {
+    return client.send(detailRequest, HttpResponse.BodyHandlers.ofString()).body();
+  }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.common;
+
+import com.example.demo.entity.CartItem;
+import com.example.demo.entity.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result 通过 Jackson 序列化的基准测试，ObjectMapper 配置与 application.properties 一致
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSerializationBenchmark {
+
+  private ObjectMapper objectMapper;
+  private Result<Order> orderResult;
+  private Result<List<CartItem>> cartResult;
+
+  @Setup
+  public void setup() {
+    objectMapper = Jackson2ObjectMapperBuilder.json()
+        .dateFormat(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss"))
+        .timeZone(TimeZone.getTimeZone("GMT+8"))
+        .build();
+
+    Order order = new Order();
+    order.setId(1L);
+    order.setOrderNumber("ORD20250617120000123");
+    order.setUserId(2L);
+    order.setTotalAmount(new BigDecimal("1598.00"));
+    order.setStatus("paid");
+    order.setPaymentMethod("balance");
+    order.setShippingAddress("北京市海淀区");
+    order.setCreateTime(LocalDateTime.now());
+    order.setUpdateTime(LocalDateTime.now());
+    orderResult = Result.success("下单成功", order);
+
+    List<CartItem> items = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      CartItem item = new CartItem();
+      item.setId((long) i);
+      item.setUserId(2L);
+      item.setProductId((long) i);
+      item.setQuantity(i % 3 + 1);
+      item.setProductName("商品" + i);
+      item.setProductPrice(new BigDecimal("199.00"));
+      item.setProductImageUrl("https://picsum.photos/300/300?random=" + i);
+      item.setProductStock(100);
+      item.setCreateTime(LocalDateTime.now());
+      items.add(item);
+    }
+    cartResult = Result.success(items);
+  }
+
+  @Benchmark
+  public byte[] serializeOrder() throws Exception {
+    return objectMapper.writeValueAsBytes(orderResult);
+  }
+
+  @Benchmark
+  public byte[] serializeCart() throws Exception {
+    return objectMapper.writeValueAsBytes(cartResult);
+  }
+}
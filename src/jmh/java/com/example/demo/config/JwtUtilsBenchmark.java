@@ -0,0 +1,61 @@
+package com.example.demo.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtils 生成与验证token基准测试
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilsBenchmark {
+
+  private JwtUtils jwtUtils;
+  private String token;
+
+  @Setup
+  public void setup() {
+    jwtUtils = new JwtUtils(new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(jwtUtils, "secret", "mySecretKey123456789abcdefghijklmnopqrstuvwxyz");
+    ReflectionTestUtils.setField(jwtUtils, "expiration", 86400L);
+    ReflectionTestUtils.setField(jwtUtils, "cacheMaxSize", 10000L);
+    jwtUtils.init();
+    token = jwtUtils.generateToken("user");
+  }
+
+  @Benchmark
+  public String generateToken() {
+    return jwtUtils.generateToken("user");
+  }
+
+  @Benchmark
+  public boolean validateToken() {
+    return jwtUtils.validateToken(token);
+  }
+
+  /**
+   * 模拟一次认证请求：先验证再取用户名
+   */
+  @Benchmark
+  public void validateThenGetUsername(Blackhole blackhole) {
+    blackhole.consume(jwtUtils.validateToken(token));
+    blackhole.consume(jwtUtils.getUsernameFromToken(token));
+  }
+}
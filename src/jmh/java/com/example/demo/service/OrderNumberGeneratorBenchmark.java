@@ -0,0 +1,69 @@
+package com.example.demo.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单号生成基准测试：原先的秒级时间戳+随机数实现作为对照，分别测单线程与8线程并发
+ * 运行: mvn -Pbenchmark test-compile exec:exec -Djmh.args="OrderNumberGeneratorBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderNumberGeneratorBenchmark {
+
+  private OrderNumberGenerator generator;
+
+  @Setup
+  public void setup() {
+    generator = new OrderNumberGenerator(1);
+  }
+
+  @Benchmark
+  public String legacy() {
+    return legacyOrderNumber();
+  }
+
+  @Benchmark
+  public String generator() {
+    return generator.next();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public String legacyContended() {
+    return legacyOrderNumber();
+  }
+
+  @Benchmark
+  @Threads(8)
+  public String generatorContended() {
+    return generator.next();
+  }
+
+  /**
+   * 原先 OrderService.generateOrderNumber 的实现
+   */
+  private static String legacyOrderNumber() {
+    LocalDateTime now = LocalDateTime.now();
+    String timestamp = now.format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+    String randomSuffix = String.valueOf((int) (Math.random() * 1000));
+    return "ORD" + timestamp + String.format("%03d", Integer.parseInt(randomSuffix));
+  }
+}
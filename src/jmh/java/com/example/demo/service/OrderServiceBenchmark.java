@@ -0,0 +1,60 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.CartItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderService 纯计算部分基准测试：购物车金额计算，订单号生成见 OrderNumberGeneratorBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+  /**
+   * 不同商品数量的购物车
+   */
+  @State(Scope.Benchmark)
+  public static class CartState {
+
+    @Param({"1", "10", "50"})
+    public int cartSize;
+
+    public List<CartItem> cartItems;
+
+    @Setup
+    public void setup() {
+      cartItems = new ArrayList<>(cartSize);
+      for (int i = 0; i < cartSize; i++) {
+        CartItem item = new CartItem();
+        item.setProductId((long) i);
+        item.setProductPrice(new BigDecimal("199.90").add(BigDecimal.valueOf(i)));
+        item.setQuantity(i % 5 + 1);
+        cartItems.add(item);
+      }
+    }
+  }
+
+  @Benchmark
+  public BigDecimal calculateTotalAmount(CartState state) {
+    return OrderService.calculateTotalAmount(state.cartItems);
+  }
+}
@@ -0,0 +1,162 @@
+package com.example.demo.service;
+
+import com.example.demo.BenchmarkContext;
+import com.example.demo.entity.CartItem;
+import com.example.demo.entity.ForumPost;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CartService、OrderService、ForumPostService 服务方法基准测试（H2 MySQL兼容模式）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceLayerBenchmark {
+
+  private static final String USERNAME = "bench_user";
+  private static final int PRODUCT_COUNT = 50;
+  private static final int POST_COUNT = 1000;
+
+  private ConfigurableApplicationContext context;
+  private CartService cartService;
+  private OrderService orderService;
+  private ForumPostService forumPostService;
+  private Long userId;
+  private Long browsingUserId;
+  private Long postId;
+  private final List<Long> productIds = new ArrayList<>();
+
+  @Setup(Level.Trial)
+  public void setup() {
+    context = BenchmarkContext.start();
+    cartService = context.getBean(CartService.class);
+    orderService = context.getBean(OrderService.class);
+    forumPostService = context.getBean(ForumPostService.class);
+
+    JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+    jdbcTemplate.update("INSERT INTO users (username, password, nickname, balance) VALUES (?, 'bench', '压测用户', 99999999.00)",
+        USERNAME);
+    jdbcTemplate.update("INSERT INTO users (username, password, nickname, balance) VALUES ('bench_browser', 'bench', '浏览用户', 0)");
+    userId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = ?", Long.class, USERNAME);
+    browsingUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE username = 'bench_browser'", Long.class);
+
+    List<Object[]> products = new ArrayList<>();
+    for (int i = 0; i < PRODUCT_COUNT; i++) {
+      products.add(new Object[]{"压测商品" + i, "压测商品描述" + i, 10 + i, 1_000_000_000, "bench"});
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO products (name, description, price, stock, category) VALUES (?, ?, ?, ?, ?)",
+        products);
+    productIds.addAll(jdbcTemplate.queryForList("SELECT id FROM products WHERE category = 'bench' ORDER BY id",
+        Long.class));
+
+    List<Object[]> posts = new ArrayList<>();
+    for (int i = 0; i < POST_COUNT; i++) {
+      posts.add(new Object[]{"压测帖子标题" + i, "压测帖子内容，包含一些用于搜索的关键字 keyword" + i, userId});
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO forum_posts (title, content, author_id) VALUES (?, ?, ?)", posts);
+    postId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM forum_posts", Long.class);
+
+    // 浏览用户的购物车保持固定内容，用于读取基准
+    for (int i = 0; i < 10; i++) {
+      cartService.addToCart(browsingUserId, productIds.get(i), 1);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  /**
+   * 每次结算前重新填充购物车
+   */
+  @State(Scope.Thread)
+  public static class CheckoutState {
+
+    @Param({"1", "10"})
+    public int cartSize;
+
+    @Setup(Level.Invocation)
+    public void fillCart(ServiceLayerBenchmark benchmark) {
+      benchmark.cartService.clearCart(benchmark.userId);
+      for (int i = 0; i < cartSize; i++) {
+        benchmark.cartService.addToCart(benchmark.userId, benchmark.productIds.get(i), 1);
+      }
+    }
+  }
+
+  /**
+   * 结算成功与失败次数（例如订单号冲突导致的失败）
+   */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class CheckoutCounters {
+    public long checkoutSucceeded;
+    public long checkoutFailed;
+  }
+
+  @Benchmark
+  public List<CartItem> getCart() {
+    return cartService.getCartByUserId(browsingUserId);
+  }
+
+  @Benchmark
+  public void addToCart() {
+    cartService.addToCart(browsingUserId, productIds.get(0), 1);
+  }
+
+  @Benchmark
+  public Object checkoutFromCart(CheckoutState state, CheckoutCounters counters) {
+    try {
+      Object order = orderService.checkoutFromCart(USERNAME, Map.of("shippingAddress", "压测地址"));
+      counters.checkoutSucceeded++;
+      return order;
+    } catch (RuntimeException e) {
+      counters.checkoutFailed++;
+      return e;
+    }
+  }
+
+  @Benchmark
+  public Object getForumPostsFirstPage() {
+    return forumPostService.getForumPosts(1, 10, null);
+  }
+
+  @Benchmark
+  public Object getForumPostsDeepPage() {
+    return forumPostService.getForumPosts(90, 10, null);
+  }
+
+  @Benchmark
+  public Object searchForumPosts() {
+    return forumPostService.getForumPosts(1, 10, "keyword99");
+  }
+
+  @Benchmark
+  public ForumPost getPostDetail() {
+    return forumPostService.getPostDetail(postId);
+  }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.cart;
+
+import com.example.demo.entity.CartItem;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 购物车存储接口 - 只保存 (用户, 商品, 数量)，商品名称、价格和库存由调用方从商品缓存补齐
+ * 在事务中调用的变更随事务提交生效，事务回滚时购物车保持不变
+ */
+public interface CartStore {
+
+  /**
+   * 获取用户购物车的副本，按加入时间倒序
+   */
+  List<CartItem> getItems(Long userId);
+
+  /**
+   * 添加商品，已有的商品累加数量
+   */
+  void add(Long userId, Map<Long, Integer> quantities);
+
+  /**
+   * 修改购物车中已有商品的数量
+   */
+  void setQuantity(Long userId, Long productId, int quantity);
+
+  /**
+   * 移除商品
+   */
+  void remove(Long userId, Long productId);
+
+  /**
+   * 清空购物车
+   */
+  void clear(Long userId);
+}
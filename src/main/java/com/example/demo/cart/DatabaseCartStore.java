@@ -0,0 +1,51 @@
+package com.example.demo.cart;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.example.demo.entity.CartItem;
+import com.example.demo.mapper.CartItemMapper;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 数据库购物车存储 - 每次读写直接访问cart_items表，多实例部署且不能按用户路由时使用
+ */
+public class DatabaseCartStore implements CartStore {
+
+  private final CartItemMapper cartItemMapper;
+
+  public DatabaseCartStore(CartItemMapper cartItemMapper) {
+    this.cartItemMapper = cartItemMapper;
+  }
+
+  @Override
+  public List<CartItem> getItems(Long userId) {
+    QueryWrapper<CartItem> queryWrapper = new QueryWrapper<>();
+    queryWrapper.eq("user_id", userId).orderByDesc("create_time", "id");
+    return cartItemMapper.selectList(queryWrapper);
+  }
+
+  @Override
+  public void add(Long userId, Map<Long, Integer> quantities) {
+    cartItemMapper.upsertBatch(userId, quantities);
+  }
+
+  @Override
+  public void setQuantity(Long userId, Long productId, int quantity) {
+    cartItemMapper.updateQuantity(userId, productId, quantity);
+  }
+
+  @Override
+  public void remove(Long userId, Long productId) {
+    QueryWrapper<CartItem> queryWrapper = new QueryWrapper<>();
+    queryWrapper.eq("user_id", userId).eq("product_id", productId);
+    cartItemMapper.delete(queryWrapper);
+  }
+
+  @Override
+  public void clear(Long userId) {
+    QueryWrapper<CartItem> queryWrapper = new QueryWrapper<>();
+    queryWrapper.eq("user_id", userId);
+    cartItemMapper.delete(queryWrapper);
+  }
+}
@@ -0,0 +1,425 @@
+package com.example.demo.cart;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.example.demo.common.TransactionUtils;
+import com.example.demo.entity.CartItem;
+import com.example.demo.mapper.CartItemMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.BeanUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 写回式购物车存储 - 活跃用户的购物车保存在进程内，首次访问时从数据库加载；
+ * 数量修改和移除只修改内存并记录改动的商品，定时批量写回cart_items，长时间未访问且已写回的购物车从内存移除。
+ * 新加入的商品在调用方事务中直接插入以取得ID，清空购物车在调用方事务中直接删除，结算后进程退出也不会恢复已结算的商品
+ */
+@Log4j2
+public class WriteBackCartStore implements CartStore {
+
+  private final CartItemMapper cartItemMapper;
+  private final int flushBatchSize;
+  private final long idleMillis;
+
+  private final ConcurrentMap<Long, Cart> carts = new ConcurrentHashMap<>();
+
+  /**
+   * 写回串行执行，避免两次写回乱序导致旧数量覆盖新数量
+   */
+  private final ReentrantLock flushLock = new ReentrantLock();
+
+  public WriteBackCartStore(CartItemMapper cartItemMapper, int flushBatchSize, long idleSeconds) {
+    this.cartItemMapper = cartItemMapper;
+    this.flushBatchSize = flushBatchSize;
+    this.idleMillis = idleSeconds * 1000;
+  }
+
+  @Override
+  public List<CartItem> getItems(Long userId) {
+    return withCart(userId, Cart::snapshot);
+  }
+
+  @Override
+  public void add(Long userId, Map<Long, Integer> quantities) {
+    Map<Long, Integer> copy = new LinkedHashMap<>(quantities);
+    Map<Long, Long> ids = insertNewLines(userId, copy);
+    TransactionUtils.afterCommit(() -> update(userId, cart -> cart.add(copy, ids)));
+  }
+
+  @Override
+  public void setQuantity(Long userId, Long productId, int quantity) {
+    TransactionUtils.afterCommit(() -> update(userId, cart -> cart.setQuantity(productId, quantity)));
+  }
+
+  @Override
+  public void remove(Long userId, Long productId) {
+    TransactionUtils.afterCommit(() -> update(userId, cart -> cart.remove(productId)));
+  }
+
+  @Override
+  public void clear(Long userId) {
+    Set<Long> pending = new HashSet<>();
+    Set<Long> productIds;
+    flushLock.lock();
+    try {
+      // 丢弃尚未写回的改动，删除之后的写回不会把已清空的商品重新写入；事务回滚时恢复这些改动
+      productIds = withCart(userId, cart -> {
+        pending.addAll(cart.discardPending());
+        Set<Long> cleared = new HashSet<>(cart.lines.keySet());
+        cleared.addAll(pending);
+        return cleared;
+      });
+      TransactionUtils.afterRollback(() -> update(userId, cart -> cart.dirty.addAll(pending)));
+
+      QueryWrapper<CartItem> queryWrapper = new QueryWrapper<>();
+      queryWrapper.eq("user_id", userId);
+      cartItemMapper.delete(queryWrapper);
+    } finally {
+      flushLock.unlock();
+    }
+    TransactionUtils.afterCommit(() -> drop(userId, productIds));
+  }
+
+  /**
+   * 内存中的购物车数量
+   */
+  public int size() {
+    return carts.size();
+  }
+
+  /**
+   * 定时批量写回改动的购物车项，并移除空闲的购物车
+   */
+  @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:1000}")
+  public void flush() {
+    flushLock.lock();
+    try {
+      List<CartItem> upserts = new ArrayList<>();
+      List<CartItem> deletes = new ArrayList<>();
+      for (Cart cart : carts.values()) {
+        synchronized (cart) {
+          cart.drain(upserts, deletes);
+        }
+        if (upserts.size() >= flushBatchSize) {
+          writeUpserts(upserts);
+          upserts = new ArrayList<>();
+        }
+        if (deletes.size() >= flushBatchSize) {
+          writeDeletes(deletes);
+          deletes = new ArrayList<>();
+        }
+      }
+      if (!upserts.isEmpty()) {
+        writeUpserts(upserts);
+      }
+      if (!deletes.isEmpty()) {
+        writeDeletes(deletes);
+      }
+      evictIdle();
+    } finally {
+      flushLock.unlock();
+    }
+  }
+
+  /**
+   * 应用关闭前写回剩余的改动
+   */
+  @PreDestroy
+  public void flushOnShutdown() {
+    log.info("应用关闭，写回购物车改动");
+    flush();
+  }
+
+  private <T> T withCart(Long userId, Function<Cart, T> action) {
+    while (true) {
+      Cart cart = carts.computeIfAbsent(userId, this::load);
+      synchronized (cart) {
+        // 已被移出内存的购物车不再修改，重新加载后再执行
+        if (!cart.evicted) {
+          cart.lastAccess = System.currentTimeMillis();
+          return action.apply(cart);
+        }
+      }
+    }
+  }
+
+  private void update(Long userId, Consumer<Cart> action) {
+    withCart(userId, cart -> {
+      action.accept(cart);
+      return null;
+    });
+  }
+
+  /**
+   * 新商品在当前事务中直接写入cart_items并取回ID，已有商品只累加内存中的数量；
+   * 已移除但删除尚未写回的商品仍走写回，ID在写回后补齐
+   */
+  private Map<Long, Long> insertNewLines(Long userId, Map<Long, Integer> quantities) {
+    Map<Long, Integer> newLines = withCart(userId, cart -> cart.newLines(quantities));
+    if (newLines.isEmpty()) {
+      return Map.of();
+    }
+    cartItemMapper.upsertBatch(userId, newLines);
+
+    QueryWrapper<CartItem> queryWrapper = new QueryWrapper<>();
+    queryWrapper.select("id", "product_id").eq("user_id", userId).in("product_id", newLines.keySet());
+    Map<Long, Long> ids = new HashMap<>();
+    for (CartItem row : cartItemMapper.selectList(queryWrapper)) {
+      ids.put(row.getProductId(), row.getId());
+    }
+    return ids;
+  }
+
+  /**
+   * 清空提交后移除内存中被清空的商品，之后新加入的商品保留；购物车为空时从内存移除
+   */
+  private void drop(Long userId, Set<Long> productIds) {
+    Cart cart = carts.get(userId);
+    if (cart == null) {
+      return;
+    }
+    synchronized (cart) {
+      cart.lines.keySet().removeAll(productIds);
+      cart.dirty.removeAll(productIds);
+      if (cart.lines.isEmpty() && cart.dirty.isEmpty()) {
+        cart.evicted = true;
+        carts.remove(userId, cart);
+      }
+    }
+  }
+
+  private Cart load(Long userId) {
+    QueryWrapper<CartItem> queryWrapper = new QueryWrapper<>();
+    queryWrapper.eq("user_id", userId).orderByAsc("create_time", "id");
+    return new Cart(userId, cartItemMapper.selectList(queryWrapper));
+  }
+
+  private void writeUpserts(List<CartItem> items) {
+    try {
+      int rows = cartItemMapper.replaceLines(items);
+      assignIds(items);
+      log.debug("购物车写回完成: count={}, rows={}", items.size(), rows);
+    } catch (Exception e) {
+      // 写回失败时重新标记为改动，等待下一轮重试
+      log.error("购物车写回失败，下次重试: count={}, error={}", items.size(), e.getMessage(), e);
+      markDirty(items);
+    }
+  }
+
+  private void writeDeletes(List<CartItem> items) {
+    try {
+      int rows = cartItemMapper.deleteLines(items);
+      log.debug("购物车删除写回完成: count={}, rows={}", items.size(), rows);
+    } catch (Exception e) {
+      log.error("购物车删除写回失败，下次重试: count={}, error={}", items.size(), e.getMessage(), e);
+      markDirty(items);
+    }
+  }
+
+  /**
+   * 新增的购物车项写回后取回数据库生成的ID
+   */
+  private void assignIds(List<CartItem> items) {
+    Set<Long> userIds = new HashSet<>();
+    for (CartItem item : items) {
+      if (item.getId() == null) {
+        userIds.add(item.getUserId());
+      }
+    }
+    if (userIds.isEmpty()) {
+      return;
+    }
+
+    QueryWrapper<CartItem> queryWrapper = new QueryWrapper<>();
+    queryWrapper.select("id", "user_id", "product_id").in("user_id", userIds);
+    for (CartItem row : cartItemMapper.selectList(queryWrapper)) {
+      Cart cart = carts.get(row.getUserId());
+      if (cart == null) {
+        continue;
+      }
+      synchronized (cart) {
+        CartItem line = cart.lines.get(row.getProductId());
+        if (line != null && line.getId() == null) {
+          line.setId(row.getId());
+        }
+      }
+    }
+  }
+
+  private void markDirty(List<CartItem> items) {
+    for (CartItem item : items) {
+      Cart cart = carts.get(item.getUserId());
+      if (cart != null) {
+        synchronized (cart) {
+          cart.dirty.add(item.getProductId());
+        }
+      }
+    }
+  }
+
+  /**
+   * 移除已全部写回且超过空闲时间的购物车，下次访问时重新加载
+   */
+  private void evictIdle() {
+    long deadline = System.currentTimeMillis() - idleMillis;
+    carts.forEach((userId, cart) -> {
+      synchronized (cart) {
+        if (cart.dirty.isEmpty() && cart.lastAccess < deadline) {
+          cart.evicted = true;
+          carts.remove(userId, cart);
+        }
+      }
+    });
+  }
+
+  private static CartItem copyOf(CartItem source) {
+    CartItem copy = new CartItem();
+    BeanUtils.copyProperties(source, copy);
+    return copy;
+  }
+
+  /**
+   * 单个用户的购物车，所有访问都在该对象的锁内进行
+   */
+  private static final class Cart {
+
+    private final Long userId;
+
+    /**
+     * 商品ID -> 购物车项，按加入顺序
+     */
+    private final Map<Long, CartItem> lines = new LinkedHashMap<>();
+
+    /**
+     * 上次写回后改动过的商品ID
+     */
+    private final Set<Long> dirty = new HashSet<>();
+
+    /**
+     * 加载时数据库中已有的购物车项ID
+     */
+    private final Set<Long> loadedIds = new HashSet<>();
+
+    private long lastAccess;
+    private boolean evicted;
+
+    Cart(Long userId, List<CartItem> items) {
+      this.userId = userId;
+      for (CartItem item : items) {
+        lines.put(item.getProductId(), item);
+        loadedIds.add(item.getId());
+      }
+    }
+
+    List<CartItem> snapshot() {
+      List<CartItem> items = new ArrayList<>(lines.size());
+      for (CartItem line : lines.values()) {
+        items.add(copyOf(line));
+      }
+      Collections.reverse(items);
+      return items;
+    }
+
+    /**
+     * 累加数量，ids为本次事务直接插入的新商品的行ID；购物车在事务提交后才从数据库加载时，
+     * 加载到的行已包含本次插入的数量，不再重复累加
+     */
+    void add(Map<Long, Integer> quantities, Map<Long, Long> ids) {
+      LocalDateTime now = LocalDateTime.now();
+      quantities.forEach((productId, quantity) -> {
+        CartItem line = lines.get(productId);
+        Long insertedId = ids.get(productId);
+        if (line != null && insertedId != null && insertedId.equals(line.getId())
+            && loadedIds.contains(insertedId)) {
+          return;
+        }
+        if (line == null) {
+          line = new CartItem();
+          line.setId(insertedId);
+          line.setUserId(userId);
+          line.setProductId(productId);
+          line.setQuantity(quantity);
+          line.setCreateTime(now);
+          lines.put(productId, line);
+        } else {
+          line.setQuantity(line.getQuantity() + quantity);
+          if (line.getId() == null) {
+            line.setId(insertedId);
+          }
+        }
+        line.setUpdateTime(now);
+        dirty.add(productId);
+      });
+    }
+
+    void setQuantity(Long productId, int quantity) {
+      CartItem line = lines.get(productId);
+      if (line != null) {
+        line.setQuantity(quantity);
+        line.setUpdateTime(LocalDateTime.now());
+        dirty.add(productId);
+      }
+    }
+
+    void remove(Long productId) {
+      if (lines.remove(productId) != null) {
+        dirty.add(productId);
+      }
+    }
+
+    /**
+     * 不在购物车中、也没有待写回删除的商品
+     */
+    Map<Long, Integer> newLines(Map<Long, Integer> quantities) {
+      Map<Long, Integer> result = new LinkedHashMap<>();
+      quantities.forEach((productId, quantity) -> {
+        if (!lines.containsKey(productId) && !dirty.contains(productId)) {
+          result.put(productId, quantity);
+        }
+      });
+      return result;
+    }
+
+    /**
+     * 取出并丢弃尚未写回的改动
+     */
+    Set<Long> discardPending() {
+      Set<Long> pending = new HashSet<>(dirty);
+      dirty.clear();
+      return pending;
+    }
+
+    /**
+     * 取出改动：仍在购物车中的商品写入当前数量，已移除的商品删除
+     */
+    void drain(List<CartItem> upserts, List<CartItem> deletes) {
+      for (Long productId : dirty) {
+        CartItem line = lines.get(productId);
+        if (line != null) {
+          upserts.add(copyOf(line));
+        } else {
+          CartItem key = new CartItem();
+          key.setUserId(userId);
+          key.setProductId(productId);
+          deletes.add(key);
+        }
+      }
+      dirty.clear();
+    }
+  }
+}
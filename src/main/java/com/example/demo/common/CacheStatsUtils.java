@@ -0,0 +1,30 @@
+package com.example.demo.common;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 本地缓存统计工具类
+ */
+public final class CacheStatsUtils {
+
+  private CacheStatsUtils() {
+  }
+
+  /**
+   * 将缓存统计信息转换为便于输出的Map
+   */
+  public static Map<String, Object> toMap(Cache<?, ?> cache) {
+    CacheStats stats = cache.stats();
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("size", cache.estimatedSize());
+    result.put("hitCount", stats.hitCount());
+    result.put("missCount", stats.missCount());
+    result.put("hitRate", stats.hitRate());
+    result.put("evictionCount", stats.evictionCount());
+    return result;
+  }
+}
@@ -0,0 +1,21 @@
+package com.example.demo.common;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注控制器参数，注入当前请求的登录用户
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+
+  /**
+   * 是否必须登录，未登录时抛出UnauthorizedException
+   */
+  boolean required() default true;
+}
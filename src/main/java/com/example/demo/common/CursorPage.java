@@ -0,0 +1,45 @@
+package com.example.demo.common;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页结果
+ */
+@Data
+public class CursorPage<T> {
+
+  private static final int MAX_SIZE = 100;
+
+  private List<T> records;
+  private int size;
+  private boolean hasMore;
+
+  /**
+   * 下一页的续页令牌，没有更多数据时为null
+   */
+  private String nextCursor;
+
+  /**
+   * 将请求的页大小限制在 1 到 MAX_SIZE 之间
+   */
+  public static int normalizeSize(int size) {
+    return Math.min(Math.max(size, 1), MAX_SIZE);
+  }
+
+  /**
+   * 根据多查询一条的结果构造分页，rows最多包含size+1条记录
+   */
+  public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, PageCursor> cursorOf) {
+    CursorPage<T> page = new CursorPage<>();
+    page.size = size;
+    page.hasMore = rows.size() > size;
+    page.records = page.hasMore ? rows.subList(0, size) : rows;
+    if (page.hasMore) {
+      page.nextCursor = cursorOf.apply(page.records.get(size - 1)).encode();
+    }
+    return page;
+  }
+}
@@ -0,0 +1,22 @@
+package com.example.demo.common;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 全局异常处理，处理在进入控制器方法之前抛出的异常
+ */
+@RestControllerAdvice
+@Log4j2
+public class GlobalExceptionHandler {
+
+  /**
+   * 未登录或token无效
+   */
+  @ExceptionHandler(UnauthorizedException.class)
+  public Result<Void> handleUnauthorized(UnauthorizedException e) {
+    log.warn("请求未通过认证: {}", e.getMessage());
+    return Result.error(401, e.getMessage());
+  }
+}
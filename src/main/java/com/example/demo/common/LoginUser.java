@@ -0,0 +1,25 @@
+package com.example.demo.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 当前登录用户的轻量信息，每个请求只解析加载一次
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginUser {
+  private Long id;
+  private String username;
+  private String userType;
+  private String nickname;
+
+  /**
+   * 展示用名称，未设置昵称时使用用户名
+   */
+  public String getDisplayName() {
+    return nickname != null ? nickname : username;
+  }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.common;
+
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 游标分页位置 - 按 (create_time, id) 倒序排列时上一页最后一条记录的位置
+ */
+@Getter
+public final class PageCursor {
+
+  private static final String SEPARATOR = "|";
+
+  private final LocalDateTime createTime;
+  private final Long id;
+
+  private PageCursor(LocalDateTime createTime, Long id) {
+    this.createTime = createTime;
+    this.id = id;
+  }
+
+  public static PageCursor of(LocalDateTime createTime, Long id) {
+    return new PageCursor(createTime, id);
+  }
+
+  /**
+   * 编码为对客户端不透明的续页令牌
+   */
+  public String encode() {
+    String raw = createTime + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * 解析续页令牌，为空时返回null表示从第一页开始
+   */
+  public static PageCursor decode(String token) {
+    if (token == null || token.isBlank()) {
+      return null;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int index = raw.lastIndexOf(SEPARATOR);
+      return new PageCursor(LocalDateTime.parse(raw.substring(0, index)), Long.valueOf(raw.substring(index + 1)));
+    } catch (RuntimeException e) {
+      throw new RuntimeException("无效的分页游标");
+    }
+  }
+}
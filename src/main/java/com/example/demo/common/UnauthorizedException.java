@@ -0,0 +1,11 @@
+package com.example.demo.common;
+
+/**
+ * 未登录或token无效异常
+ */
+public class UnauthorizedException extends RuntimeException {
+
+  public UnauthorizedException(String message) {
+    super(message);
+  }
+}
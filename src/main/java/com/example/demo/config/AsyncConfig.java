@@ -0,0 +1,48 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 异步执行器配置类
+ */
+@Configuration
+@Log4j2
+public class AsyncConfig {
+
+  /**
+   * 个人主页聚合查询的并发上限，0表示取连接池大小的一半，保证聚合查询不会占满下单等请求所需的连接
+   */
+  @Value("${profile.summary.max-concurrency:0}")
+  private int summaryMaxConcurrency;
+
+  @Value("${profile.summary.queue-capacity:200}")
+  private int summaryQueueCapacity;
+
+  /**
+   * 个人主页聚合查询执行器，所有请求共享同一份并发额度；队列满时拒绝提交，不在请求线程中执行，
+   * 否则请求线程会绕过并发额度额外占用数据库连接
+   */
+  @Bean
+  public AsyncTaskExecutor profileSummaryExecutor(HikariDataSource dataSource) {
+    int concurrency = summaryMaxConcurrency > 0
+        ? summaryMaxConcurrency
+        : Math.max(2, dataSource.getMaximumPoolSize() / 2);
+
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setThreadNamePrefix("profile-summary-");
+    executor.setCorePoolSize(concurrency);
+    executor.setMaxPoolSize(concurrency);
+    executor.setQueueCapacity(summaryQueueCapacity);
+    executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    log.info("个人主页聚合执行器: 线程数={}, 队列容量={}", concurrency, summaryQueueCapacity);
+    return executor;
+  }
+}
@@ -0,0 +1,41 @@
+package com.example.demo.config;
+
+import com.example.demo.cart.CartStore;
+import com.example.demo.cart.DatabaseCartStore;
+import com.example.demo.cart.WriteBackCartStore;
+import com.example.demo.mapper.CartItemMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 购物车存储配置类
+ */
+@Configuration
+public class CartConfig {
+
+  @Value("${cart.store.flush-batch-size:500}")
+  private int flushBatchSize;
+
+  @Value("${cart.store.idle-seconds:1800}")
+  private long idleSeconds;
+
+  /**
+   * 写回式购物车存储（默认），购物车保存在进程内，定时批量写回数据库
+   */
+  @Bean
+  @ConditionalOnProperty(name = "cart.store.type", havingValue = "memory", matchIfMissing = true)
+  public CartStore writeBackCartStore(CartItemMapper cartItemMapper) {
+    return new WriteBackCartStore(cartItemMapper, flushBatchSize, idleSeconds);
+  }
+
+  /**
+   * 数据库购物车存储，每次读写直接访问数据库
+   */
+  @Bean
+  @ConditionalOnProperty(name = "cart.store.type", havingValue = "database")
+  public CartStore databaseCartStore(CartItemMapper cartItemMapper) {
+    return new DatabaseCartStore(cartItemMapper);
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.config;
+
+import com.example.demo.common.CurrentUser;
+import com.example.demo.common.LoginUser;
+import com.example.demo.common.UnauthorizedException;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * 解析@CurrentUser参数，从安全上下文中取出过滤器已加载的登录用户
+ */
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+  @Override
+  public boolean supportsParameter(MethodParameter parameter) {
+    return parameter.hasParameterAnnotation(CurrentUser.class)
+        && LoginUser.class.isAssignableFrom(parameter.getParameterType());
+  }
+
+  @Override
+  public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+      NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof LoginUser loginUser) {
+      return loginUser;
+    }
+
+    CurrentUser annotation = parameter.getParameterAnnotation(CurrentUser.class);
+    if (annotation != null && annotation.required()) {
+      throw new UnauthorizedException("未提供有效的token");
+    }
+    return null;
+  }
+}
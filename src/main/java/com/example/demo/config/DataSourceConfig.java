@@ -0,0 +1,49 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 数据源配置类 - 连接池大小默认按CPU核数计算，spring.datasource.hikari.*中显式配置的值优先
+ */
+@Configuration
+@Log4j2
+public class DataSourceConfig {
+
+  /**
+   * 连接池指标
+   */
+  @Bean
+  public HikariPoolMetrics hikariPoolMetrics(MeterRegistry meterRegistry) {
+    return new HikariPoolMetrics(meterRegistry);
+  }
+
+  /**
+   * Hikari连接池，属性绑定在方法返回后进行，因此这里设置的只是默认值
+   */
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource dataSource(DataSourceProperties properties, HikariPoolMetrics hikariPoolMetrics) {
+    HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .build();
+    int poolSize = defaultPoolSize();
+    dataSource.setMaximumPoolSize(poolSize);
+    dataSource.setMinimumIdle(poolSize);
+    dataSource.setMetricsTrackerFactory(hikariPoolMetrics);
+    log.info("数据源连接池默认大小: cores={}, poolSize={}", Runtime.getRuntime().availableProcessors(), poolSize);
+    return dataSource;
+  }
+
+  /**
+   * 连接数 = 核数 * 2 + 1，固定大小的连接池避免突发流量时临时建连
+   */
+  static int defaultPoolSize() {
+    return Runtime.getRuntime().availableProcessors() * 2 + 1;
+  }
+}
@@ -0,0 +1,116 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 连接池指标采集 - 记录获取连接耗时、超时次数以及活跃/空闲连接数，用于按下单和列表负载评估连接池大小，
+ * 同时转发给Micrometer发布hikaricp.*指标
+ */
+public class HikariPoolMetrics implements MetricsTrackerFactory {
+
+  private final MicrometerMetricsTrackerFactory micrometerFactory;
+  private final LongAdder acquireCount = new LongAdder();
+  private final LongAdder acquireNanos = new LongAdder();
+  private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+  private final LongAdder usageCount = new LongAdder();
+  private final LongAdder usageMillis = new LongAdder();
+  private final LongAccumulator maxUsageMillis = new LongAccumulator(Math::max, 0);
+  private final LongAdder timeoutCount = new LongAdder();
+  private final LongAdder createdCount = new LongAdder();
+
+  private volatile String poolName;
+  private volatile PoolStats poolStats;
+
+  public HikariPoolMetrics(MeterRegistry meterRegistry) {
+    this.micrometerFactory = new MicrometerMetricsTrackerFactory(meterRegistry);
+  }
+
+  @Override
+  public IMetricsTracker create(String poolName, PoolStats poolStats) {
+    this.poolName = poolName;
+    this.poolStats = poolStats;
+    return new Tracker(micrometerFactory.create(poolName, poolStats));
+  }
+
+  /**
+   * 获取连接池统计信息，连接池尚未启动时只返回累计指标
+   */
+  public Map<String, Object> getPoolStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("poolName", poolName);
+    PoolStats current = poolStats;
+    if (current != null) {
+      stats.put("activeConnections", current.getActiveConnections());
+      stats.put("idleConnections", current.getIdleConnections());
+      stats.put("totalConnections", current.getTotalConnections());
+      stats.put("pendingThreads", current.getPendingThreads());
+      stats.put("maxConnections", current.getMaxConnections());
+      stats.put("minConnections", current.getMinConnections());
+    }
+    long acquired = acquireCount.sum();
+    stats.put("acquireCount", acquired);
+    stats.put("acquireAvgMicros", acquired == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(acquireNanos.sum() / acquired));
+    stats.put("acquireMaxMicros", TimeUnit.NANOSECONDS.toMicros(maxAcquireNanos.get()));
+    long used = usageCount.sum();
+    stats.put("usageAvgMillis", used == 0 ? 0 : usageMillis.sum() / used);
+    stats.put("usageMaxMillis", maxUsageMillis.get());
+    stats.put("timeoutCount", timeoutCount.sum());
+    stats.put("createdCount", createdCount.sum());
+    return stats;
+  }
+
+  /**
+   * 连接池回调，Hikari在获取/归还连接的热路径上调用，只做无锁累加
+   */
+  private class Tracker implements IMetricsTracker {
+
+    private final IMetricsTracker delegate;
+
+    private Tracker(IMetricsTracker delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void recordConnectionCreatedMillis(long connectionCreatedMillis) {
+      createdCount.increment();
+      delegate.recordConnectionCreatedMillis(connectionCreatedMillis);
+    }
+
+    @Override
+    public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+      acquireCount.increment();
+      acquireNanos.add(elapsedAcquiredNanos);
+      maxAcquireNanos.accumulate(elapsedAcquiredNanos);
+      delegate.recordConnectionAcquiredNanos(elapsedAcquiredNanos);
+    }
+
+    @Override
+    public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+      usageCount.increment();
+      usageMillis.add(elapsedBorrowedMillis);
+      maxUsageMillis.accumulate(elapsedBorrowedMillis);
+      delegate.recordConnectionUsageMillis(elapsedBorrowedMillis);
+    }
+
+    @Override
+    public void recordConnectionTimeout() {
+      timeoutCount.increment();
+      delegate.recordConnectionTimeout();
+    }
+
+    @Override
+    public void close() {
+      delegate.close();
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.config;
+
+import com.example.demo.common.LoginUser;
+import com.example.demo.entity.User;
+import com.example.demo.service.UserService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * JWT认证过滤器 - 每个请求只解析一次token并加载一次登录用户
+ */
+@RequiredArgsConstructor
+@Log4j2
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  private final JwtUtils jwtUtils;
+  private final UserService userService;
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String authHeader = request.getHeader("Authorization");
+    if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)
+        && SecurityContextHolder.getContext().getAuthentication() == null) {
+      String token = authHeader.substring(BEARER_PREFIX.length()).trim();
+      if (!token.isEmpty()) {
+        authenticate(token);
+      }
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  /**
+   * 验证token并将登录用户放入安全上下文，失败时保持匿名
+   */
+  private void authenticate(String token) {
+    try {
+      if (!jwtUtils.validateToken(token)) {
+        return;
+      }
+      String username = jwtUtils.getUsernameFromToken(token);
+      User user = userService.getUserByUsername(username);
+      if (user == null) {
+        log.warn("token对应的用户不存在: username={}", username);
+        return;
+      }
+
+      LoginUser loginUser = new LoginUser(user.getId(), user.getUsername(), user.getUserType(), user.getNickname());
+      String role = "ROLE_" + (user.getUserType() != null ? user.getUserType().toUpperCase() : "USER");
+      UsernamePasswordAuthenticationToken authentication =
+          new UsernamePasswordAuthenticationToken(loginUser, null, List.of(new SimpleGrantedAuthority(role)));
+      SecurityContextHolder.getContext().setAuthentication(authentication);
+      log.debug("请求认证成功: username={}, userId={}", username, user.getId());
+    } catch (Exception e) {
+      log.warn("请求认证失败: {}", e.getMessage());
+    }
+  }
+}
@@ -1,39 +1,141 @@
 package com.example.demo.config;
 
+import com.example.demo.common.CacheStatsUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 重新设计的JWT工具类 - 简化版本
  */
 @Component
+@RequiredArgsConstructor
 @Log4j2
 public class JwtUtils {
 
+  private final MeterRegistry meterRegistry;
+
   @Value("${jwt.secret}")
   private String secret;
 
   @Value("${jwt.expiration}")
   private Long expiration;
 
+  @Value("${jwt.cache.max-size:10000}")
+  private long cacheMaxSize;
+
   /**
-   * 获取签名密钥
+   * 预先计算的签名密钥，避免每次请求重复构建
    */
-  private SecretKey getSigningKey() {
+  private SecretKey signingKey;
+
+  /**
+   * 线程安全的可复用解析器
+   */
+  private JwtParser jwtParser;
+
+  /**
+   * 已验证的claims缓存，key为token摘要，条目在token自身过期时间失效
+   */
+  private Cache<String, Claims> claimsCache;
+
+  @PostConstruct
+  public void init() {
     // 确保密钥长度足够
     byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-    return Keys.hmacShaKeyFor(keyBytes);
+    signingKey = Keys.hmacShaKeyFor(keyBytes);
+    jwtParser = Jwts.parserBuilder()
+        .setSigningKey(signingKey)
+        .build();
+    claimsCache = Caffeine.newBuilder()
+        .maximumSize(cacheMaxSize)
+        .expireAfter(new Expiry<String, Claims>() {
+          @Override
+          public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date exp = claims.getExpiration();
+            long remainingMillis = exp != null
+                ? exp.getTime() - System.currentTimeMillis()
+                : expiration * 1000;
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+
+          @Override
+          public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, claimsCache, "jwt.claims");
+    log.info("JWT工具初始化完成: claims缓存容量={}", cacheMaxSize);
+  }
+
+  /**
+   * 获取签名密钥
+   */
+  private SecretKey getSigningKey() {
+    return signingKey;
+  }
+
+  /**
+   * 解析并验证token，同一token只做一次签名校验
+   */
+  private Claims parseClaims(String token) {
+    return claimsCache.get(digest(token), key -> jwtParser.parseClaimsJws(token).getBody());
+  }
+
+  /**
+   * 计算token摘要作为缓存key，避免在内存中长期保存完整token
+   */
+  private static String digest(String token) {
+    try {
+      MessageDigest md = MessageDigest.getInstance("SHA-256");
+      byte[] hash = md.digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256不可用", e);
+    }
+  }
+
+  /**
+   * 日志中只输出token前缀
+   */
+  private static String tokenPrefix(String token) {
+    return token.substring(0, Math.min(token.length(), 20)) + "...";
+  }
+
+  /**
+   * 获取claims缓存命中统计
+   */
+  public Map<String, Object> getCacheStats() {
+    return CacheStatsUtils.toMap(claimsCache);
   }
 
   /**
@@ -59,8 +161,10 @@ public class JwtUtils {
           .signWith(getSigningKey(), SignatureAlgorithm.HS256)
           .compact();
 
-      log.info("JWT token生成成功: username={}, token前缀={}", username,
-          token.substring(0, Math.min(token.length(), 20)) + "...");
+      log.info("JWT token生成成功: username={}", username);
+      if (log.isDebugEnabled()) {
+        log.debug("生成的token前缀: {}", tokenPrefix(token));
+      }
       return token;
     } catch (Exception e) {
       log.error("生成JWT token失败: username={}, error={}", username, e.getMessage(), e);
@@ -73,13 +177,11 @@ public class JwtUtils {
    */
   public String getUsernameFromToken(String token) {
     try {
-      log.debug("开始解析token获取用户名, token前缀: {}", token.substring(0, Math.min(token.length(), 20)) + "...");
+      if (log.isDebugEnabled()) {
+        log.debug("开始解析token获取用户名, token前缀: {}", tokenPrefix(token));
+      }
 
-      Claims claims = Jwts.parserBuilder()
-          .setSigningKey(getSigningKey())
-          .build()
-          .parseClaimsJws(token)
-          .getBody();
+      Claims claims = parseClaims(token);
 
       String username = claims.getSubject();
       log.debug("从token解析出用户名: {}", username);
@@ -95,13 +197,11 @@ public class JwtUtils {
    */
   public boolean validateToken(String token) {
     try {
-      log.debug("开始验证token有效性, token前缀: {}", token.substring(0, Math.min(token.length(), 20)) + "...");
+      if (log.isDebugEnabled()) {
+        log.debug("开始验证token有效性, token前缀: {}", tokenPrefix(token));
+      }
 
-      Claims claims = Jwts.parserBuilder()
-          .setSigningKey(getSigningKey())
-          .build()
-          .parseClaimsJws(token)
-          .getBody();
+      Claims claims = parseClaims(token);
 
       // 检查是否过期
       Date expiration = claims.getExpiration();
@@ -125,11 +225,7 @@ public class JwtUtils {
    */
   public boolean isTokenExpired(String token) {
     try {
-      Claims claims = Jwts.parserBuilder()
-          .setSigningKey(getSigningKey())
-          .build()
-          .parseClaimsJws(token)
-          .getBody();
+      Claims claims = parseClaims(token);
 
       boolean expired = claims.getExpiration().before(new Date());
       log.debug("token过期检查: expired={}, expiration={}", expired, claims.getExpiration());
@@ -145,11 +241,7 @@ public class JwtUtils {
    */
   public long getTokenRemainingTime(String token) {
     try {
-      Claims claims = Jwts.parserBuilder()
-          .setSigningKey(getSigningKey())
-          .build()
-          .parseClaimsJws(token)
-          .getBody();
+      Claims claims = parseClaims(token);
 
       Date expiration = claims.getExpiration();
       long remaining = (expiration.getTime() - System.currentTimeMillis()) / 1000;
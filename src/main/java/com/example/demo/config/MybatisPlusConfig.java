@@ -4,9 +4,12 @@ import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.example.demo.metrics.SqlMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.ibatis.reflection.MetaObject;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 
 import java.time.LocalDateTime;
 
@@ -26,6 +29,15 @@ public class MybatisPlusConfig {
     return interceptor;
   }
 
+  /**
+   * SQL耗时统计插件，排在分页插件内层，分页计数语句会单独计时
+   */
+  @Bean
+  @Order(0)
+  public SqlMetricsInterceptor sqlMetricsInterceptor(MeterRegistry meterRegistry) {
+    return new SqlMetricsInterceptor(meterRegistry);
+  }
+
   /**
    * 自动填充配置
    */
@@ -0,0 +1,29 @@
+package com.example.demo.config;
+
+import com.example.demo.search.InMemorySearchIndex;
+import com.example.demo.search.SearchIndex;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 全文检索配置类
+ */
+@Configuration
+public class SearchConfig {
+
+  /**
+   * 论坛帖子索引
+   */
+  @Bean
+  public SearchIndex forumPostSearchIndex() {
+    return new InMemorySearchIndex("forum_posts");
+  }
+
+  /**
+   * 学习活动索引
+   */
+  @Bean
+  public SearchIndex learningActivitySearchIndex() {
+    return new InMemorySearchIndex("learning_activities");
+  }
+}
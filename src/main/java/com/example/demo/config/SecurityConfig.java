@@ -1,11 +1,13 @@
 package com.example.demo.config;
 
+import com.example.demo.service.UserService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -20,7 +22,8 @@ import java.util.Arrays;
 public class SecurityConfig {
 
   @Bean
-  public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+  public SecurityFilterChain filterChain(HttpSecurity http, JwtUtils jwtUtils, UserService userService)
+      throws Exception {
     http
         .cors(cors -> cors.configurationSource(corsConfigurationSource()))
         .csrf(csrf -> csrf.disable())
@@ -32,11 +35,16 @@ public class SecurityConfig {
             .requestMatchers("/api/products/**").permitAll()
             .requestMatchers("/api/cart/**").permitAll()
             .requestMatchers("/api/orders/**").permitAll()
+            .requestMatchers("/api/flash-sale/**").permitAll()
             .requestMatchers("/api/profile/**").permitAll()
             .requestMatchers("/api/mall/**").permitAll()
             .requestMatchers("/api/favorites/**").permitAll()
             .requestMatchers("/api/reservations/**").permitAll()
-            .anyRequest().authenticated());
+            .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+            .anyRequest().authenticated())
+        // 每个请求只解析一次token，登录用户通过@CurrentUser注入控制器
+        .addFilterBefore(new JwtAuthenticationFilter(jwtUtils, userService),
+            UsernamePasswordAuthenticationFilter.class);
 
     return http.build();
   }
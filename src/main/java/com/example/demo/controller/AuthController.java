@@ -3,6 +3,7 @@ package com.example.demo.controller;
 import com.example.demo.common.Result;
 import com.example.demo.config.JwtUtils;
 import com.example.demo.entity.User;
+import com.example.demo.service.BalanceLedgerService;
 import com.example.demo.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
@@ -23,6 +24,7 @@ import java.util.Map;
 public class AuthController {
 
   private final UserService userService;
+  private final BalanceLedgerService balanceLedgerService;
   private final JwtUtils jwtUtils;
 
   /**
@@ -75,9 +77,10 @@ public class AuthController {
       loginResult.put("nickname", user.getNickname() != null ? user.getNickname() : user.getUsername());
       loginResult.put("email", user.getEmail());
       loginResult.put("userType", user.getUserType());
-      loginResult.put("balance", user.getBalance() != null ? user.getBalance() : BigDecimal.ZERO); // 添加余额字段
+      BigDecimal balance = balanceLedgerService.getBalance(user.getId());
+      loginResult.put("balance", balance); // 添加余额字段
 
-      log.info("用户登录成功: username={}, userId={}, balance={}", username, user.getId(), user.getBalance());
+      log.info("用户登录成功: username={}, userId={}, balance={}", username, user.getId(), balance);
       return Result.success("登录成功", loginResult);
     } catch (Exception e) {
       log.error("用户登录失败: username={}, error={}", request.get("username"), e.getMessage(), e);
@@ -93,8 +96,10 @@ public class AuthController {
     try {
       // 获取Authorization header
       String authHeader = request.getHeader("Authorization");
-      log.debug("收到getUserInfo请求, Authorization header: {}",
-          authHeader != null ? authHeader.substring(0, Math.min(authHeader.length(), 30)) + "..." : "null");
+      if (log.isDebugEnabled()) {
+        log.debug("收到getUserInfo请求, Authorization header: {}",
+            authHeader != null ? authHeader.substring(0, Math.min(authHeader.length(), 30)) + "..." : "null");
+      }
 
       if (authHeader == null || !authHeader.startsWith("Bearer ")) {
         log.warn("Authorization header格式错误或缺失");
@@ -134,9 +139,10 @@ public class AuthController {
       userInfo.put("phone", user.getPhone());
       userInfo.put("gender", user.getGender());
       userInfo.put("userType", user.getUserType());
-      userInfo.put("balance", user.getBalance() != null ? user.getBalance() : BigDecimal.ZERO); // 添加余额字段
+      BigDecimal balance = balanceLedgerService.getBalance(user.getId());
+      userInfo.put("balance", balance); // 添加余额字段
 
-      log.info("成功获取用户信息: username={}, balance={}", username, user.getBalance());
+      log.info("成功获取用户信息: username={}, balance={}", username, balance);
       return Result.success("获取用户信息成功", userInfo);
     } catch (Exception e) {
       log.error("获取用户信息失败: {}", e.getMessage(), e);
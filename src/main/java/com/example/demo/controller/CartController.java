@@ -1,14 +1,15 @@
 package com.example.demo.controller;
 
+import com.example.demo.common.CurrentUser;
+import com.example.demo.common.LoginUser;
 import com.example.demo.common.Result;
-import com.example.demo.config.JwtUtils;
 import com.example.demo.entity.CartItem;
 import com.example.demo.service.CartService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.web.bind.annotation.*;
 
-import jakarta.servlet.http.HttpServletRequest;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -22,17 +23,15 @@ import java.util.Map;
 public class CartController {
 
   private final CartService cartService;
-  private final JwtUtils jwtUtils;
 
   /**
    * 获取当前用户的购物车
    */
   @GetMapping
-  public Result<List<CartItem>> getCart(HttpServletRequest request) {
+  public Result<List<CartItem>> getCart(@CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      List<CartItem> cartItems = cartService.getCartByUsername(username);
-      log.info("获取购物车成功: username={}, 商品数量={}", username, cartItems.size());
+      List<CartItem> cartItems = cartService.getCartByUserId(loginUser.getId());
+      log.info("获取购物车成功: username={}, 商品数量={}", loginUser.getUsername(), cartItems.size());
       return Result.success(cartItems);
     } catch (Exception e) {
       log.error("获取购物车失败: {}", e.getMessage(), e);
@@ -44,14 +43,13 @@ public class CartController {
    * 添加商品到购物车
    */
   @PostMapping("/add")
-  public Result<String> addToCart(@RequestBody Map<String, Object> request, HttpServletRequest httpRequest) {
+  public Result<String> addToCart(@RequestBody Map<String, Object> request, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(httpRequest);
       Long productId = Long.valueOf(request.get("productId").toString());
       Integer quantity = Integer.valueOf(request.get("quantity").toString());
 
-      cartService.addToCart(username, productId, quantity);
-      log.info("添加商品到购物车成功: username={}, productId={}, quantity={}", username, productId, quantity);
+      cartService.addToCart(loginUser.getId(), productId, quantity);
+      log.info("添加商品到购物车成功: username={}, productId={}, quantity={}", loginUser.getUsername(), productId, quantity);
       return Result.success("添加到购物车成功");
     } catch (Exception e) {
       log.error("添加商品到购物车失败: {}", e.getMessage(), e);
@@ -59,18 +57,46 @@ public class CartController {
     }
   }
 
+  /**
+   * 批量添加商品到购物车，请求体为 {"items": [{"productId": 1, "quantity": 2}, ...]}
+   */
+  @PostMapping("/add-batch")
+  public Result<String> addAllToCart(@RequestBody Map<String, List<Map<String, Object>>> request,
+      @CurrentUser LoginUser loginUser) {
+    try {
+      List<Map<String, Object>> items = request.get("items");
+      if (items == null) {
+        return Result.error("商品列表不能为空");
+      }
+
+      // 同一商品出现多次时合并数量
+      Map<Long, Integer> quantities = new LinkedHashMap<>();
+      for (Map<String, Object> item : items) {
+        Long productId = Long.valueOf(item.get("productId").toString());
+        Integer quantity = Integer.valueOf(item.get("quantity").toString());
+        quantities.merge(productId, quantity, Integer::sum);
+      }
+
+      cartService.addAllToCart(loginUser.getId(), quantities);
+      log.info("批量添加商品到购物车成功: username={}, count={}", loginUser.getUsername(), quantities.size());
+      return Result.success("添加到购物车成功");
+    } catch (Exception e) {
+      log.error("批量添加商品到购物车失败: {}", e.getMessage(), e);
+      return Result.error("添加到购物车失败: " + e.getMessage());
+    }
+  }
+
   /**
    * 更新购物车商品数量
    */
   @PutMapping("/update")
-  public Result<String> updateCartItem(@RequestBody Map<String, Object> request, HttpServletRequest httpRequest) {
+  public Result<String> updateCartItem(@RequestBody Map<String, Object> request, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(httpRequest);
       Long productId = Long.valueOf(request.get("productId").toString());
       Integer quantity = Integer.valueOf(request.get("quantity").toString());
 
-      cartService.updateCartItem(username, productId, quantity);
-      log.info("更新购物车商品数量成功: username={}, productId={}, quantity={}", username, productId, quantity);
+      cartService.updateCartItem(loginUser.getId(), productId, quantity);
+      log.info("更新购物车商品数量成功: username={}, productId={}, quantity={}", loginUser.getUsername(), productId, quantity);
       return Result.success("更新成功");
     } catch (Exception e) {
       log.error("更新购物车商品数量失败: {}", e.getMessage(), e);
@@ -82,11 +108,10 @@ public class CartController {
    * 从购物车移除商品
    */
   @DeleteMapping("/remove/{productId}")
-  public Result<String> removeFromCart(@PathVariable Long productId, HttpServletRequest request) {
+  public Result<String> removeFromCart(@PathVariable Long productId, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      cartService.removeFromCart(username, productId);
-      log.info("从购物车移除商品成功: username={}, productId={}", username, productId);
+      cartService.removeFromCart(loginUser.getId(), productId);
+      log.info("从购物车移除商品成功: username={}, productId={}", loginUser.getUsername(), productId);
       return Result.success("移除成功");
     } catch (Exception e) {
       log.error("从购物车移除商品失败: {}", e.getMessage(), e);
@@ -98,27 +123,14 @@ public class CartController {
    * 清空购物车
    */
   @DeleteMapping("/clear")
-  public Result<String> clearCart(HttpServletRequest request) {
+  public Result<String> clearCart(@CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      cartService.clearCart(username);
-      log.info("清空购物车成功: username={}", username);
+      cartService.clearCart(loginUser.getId());
+      log.info("清空购物车成功: username={}", loginUser.getUsername());
       return Result.success("清空购物车成功");
     } catch (Exception e) {
       log.error("清空购物车失败: {}", e.getMessage(), e);
       return Result.error("清空购物车失败: " + e.getMessage());
     }
   }
-
-  /**
-   * 从token中获取用户名
-   */
-  private String getUsernameFromToken(HttpServletRequest request) {
-    String authHeader = request.getHeader("Authorization");
-    if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-      throw new RuntimeException("未提供有效的token");
-    }
-    String token = authHeader.substring(7).trim();
-    return jwtUtils.getUsernameFromToken(token);
-  }
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.example.demo.controller;
+
+import com.example.demo.common.CurrentUser;
+import com.example.demo.common.LoginUser;
+import com.example.demo.common.Result;
+import com.example.demo.flashsale.FlashSaleService;
+import com.example.demo.flashsale.FlashSaleTicket;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 秒杀控制器
+ */
+@RestController
+@RequestMapping("/api/flash-sale")
+@RequiredArgsConstructor
+@Log4j2
+public class FlashSaleController {
+
+  private final FlashSaleService flashSaleService;
+
+  /**
+   * 获取正在秒杀的商品及剩余数量
+   */
+  @GetMapping("/products")
+  public Result<List<Map<String, Object>>> getSales() {
+    return Result.success(flashSaleService.getSaleStats());
+  }
+
+  /**
+   * 提交秒杀请求，返回排队凭证，订单结果通过凭证轮询
+   */
+  @PostMapping("/orders")
+  public Result<FlashSaleTicket> submit(@RequestBody Map<String, Object> request,
+      @CurrentUser LoginUser loginUser) {
+    try {
+      Long productId = Long.valueOf(request.get("productId").toString());
+      Integer quantity = request.get("quantity") != null ?
+          Integer.valueOf(request.get("quantity").toString()) : 1;
+      Map<String, String> orderInfo = new HashMap<>();
+      if (request.get("shippingAddress") != null) {
+        orderInfo.put("shippingAddress", request.get("shippingAddress").toString());
+      }
+      if (request.get("remark") != null) {
+        orderInfo.put("remark", request.get("remark").toString());
+      }
+
+      FlashSaleTicket ticket = flashSaleService.submit(loginUser.getId(), productId, quantity, orderInfo);
+      log.info("秒杀请求已排队: username={}, productId={}, ticketId={}",
+          loginUser.getUsername(), productId, ticket.getTicketId());
+      return Result.success("排队中，请稍后查询结果", ticket);
+    } catch (Exception e) {
+      log.warn("秒杀请求被拒绝: username={}, error={}", loginUser.getUsername(), e.getMessage());
+      return Result.error(e.getMessage());
+    }
+  }
+
+  /**
+   * 查询秒杀结果，status为pending时继续轮询，success时返回订单号，failed时返回失败原因
+   */
+  @GetMapping("/orders/{ticketId}")
+  public Result<FlashSaleTicket> getTicket(@PathVariable String ticketId, @CurrentUser LoginUser loginUser) {
+    try {
+      return Result.success(flashSaleService.getTicket(loginUser.getId(), ticketId));
+    } catch (Exception e) {
+      return Result.error(e.getMessage());
+    }
+  }
+}
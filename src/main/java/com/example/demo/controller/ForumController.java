@@ -1,15 +1,17 @@
 package com.example.demo.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.demo.common.CurrentUser;
+import com.example.demo.common.CursorPage;
+import com.example.demo.common.LoginUser;
 import com.example.demo.common.Result;
-import com.example.demo.config.JwtUtils;
 import com.example.demo.entity.ForumPost;
 import com.example.demo.service.ForumPostService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.web.bind.annotation.*;
 
-import jakarta.servlet.http.HttpServletRequest;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,7 +24,6 @@ import java.util.Map;
 public class ForumController {
 
   private final ForumPostService forumPostService;
-  private final JwtUtils jwtUtils;
 
   /**
    * 获取论坛帖子列表
@@ -31,15 +32,31 @@ public class ForumController {
   public Result<Page<ForumPost>> getForumPosts(
       @RequestParam(defaultValue = "1") int page,
       @RequestParam(defaultValue = "10") int size,
-      @RequestParam(required = false) String search) {
+      @RequestParam(required = false) String search,
+      @RequestParam(defaultValue = "true") boolean searchCount) {
     try {
-      Page<ForumPost> posts = forumPostService.getForumPosts(page, size, search);
+      Page<ForumPost> posts = forumPostService.getForumPosts(page, size, search, searchCount);
       return Result.success(posts);
     } catch (Exception e) {
       return Result.error(e.getMessage());
     }
   }
 
+  /**
+   * 游标分页获取论坛帖子列表，cursor取上一页返回的nextCursor，search为可选关键词
+   */
+  @GetMapping("/posts/cursor")
+  public Result<CursorPage<ForumPost>> getForumPostsByCursor(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(required = false) String search) {
+    try {
+      return Result.success(forumPostService.getForumPostsByCursor(cursor, size, search));
+    } catch (Exception e) {
+      return Result.error(e.getMessage());
+    }
+  }
+
   /**
    * 获取帖子详情
    */
@@ -60,18 +77,16 @@ public class ForumController {
    * 创建新帖子 - 修复支持用户名
    */
   @PostMapping("/posts")
-  public Result<ForumPost> createPost(@RequestBody Map<String, Object> request, HttpServletRequest httpRequest) {
+  public Result<ForumPost> createPost(@RequestBody Map<String, Object> request, @CurrentUser LoginUser loginUser) {
     try {
       String title = (String) request.get("title");
       String content = (String) request.get("content");
       String imageUrl = (String) request.get("imageUrl");
 
-      // 从token获取用户名，而不是依赖前端传递的authorId
-      String username = getUsernameFromToken(httpRequest);
-
-      log.info("开始创建帖子: title={}, username={}", title, username);
+      // 作者取自已认证的登录用户，而不是依赖前端传递的authorId
+      log.info("开始创建帖子: title={}, username={}", title, loginUser.getUsername());
 
-      ForumPost post = forumPostService.createPost(title, content, imageUrl, username);
+      ForumPost post = forumPostService.createPost(title, content, imageUrl, loginUser);
       log.info("帖子创建成功: postId={}, title={}", post.getId(), post.getTitle());
 
       return Result.success("发布成功", post);
@@ -85,11 +100,10 @@ public class ForumController {
    * 添加收藏帖子
    */
   @PostMapping("/posts/{id}/favorite")
-  public Result<String> addFavorite(@PathVariable Long id, HttpServletRequest request) {
+  public Result<String> addFavorite(@PathVariable Long id, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      forumPostService.addFavorite(username, id);
-      log.info("添加帖子收藏成功: username={}, postId={}", username, id);
+      forumPostService.addFavorite(loginUser.getId(), id);
+      log.info("添加帖子收藏成功: username={}, postId={}", loginUser.getUsername(), id);
       return Result.success("添加收藏成功");
     } catch (Exception e) {
       log.error("添加帖子收藏失败: {}", e.getMessage(), e);
@@ -101,11 +115,10 @@ public class ForumController {
    * 移除收藏帖子
    */
   @DeleteMapping("/posts/{id}/favorite")
-  public Result<String> removeFavorite(@PathVariable Long id, HttpServletRequest request) {
+  public Result<String> removeFavorite(@PathVariable Long id, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      forumPostService.removeFavorite(username, id);
-      log.info("移除帖子收藏成功: username={}, postId={}", username, id);
+      forumPostService.removeFavorite(loginUser.getId(), id);
+      log.info("移除帖子收藏成功: username={}, postId={}", loginUser.getUsername(), id);
       return Result.success("移除收藏成功");
     } catch (Exception e) {
       log.error("移除帖子收藏失败: {}", e.getMessage(), e);
@@ -117,11 +130,10 @@ public class ForumController {
    * 检查帖子是否已收藏
    */
   @GetMapping("/posts/{id}/favorite/check")
-  public Result<Map<String, Boolean>> checkFavorite(@PathVariable Long id, HttpServletRequest request) {
+  public Result<Map<String, Boolean>> checkFavorite(@PathVariable Long id, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      boolean isFavorite = forumPostService.isFavorite(username, id);
-      log.debug("检查帖子收藏状态: username={}, postId={}, isFavorite={}", username, id, isFavorite);
+      boolean isFavorite = forumPostService.isFavorite(loginUser.getId(), id);
+      log.debug("检查帖子收藏状态: username={}, postId={}, isFavorite={}", loginUser.getUsername(), id, isFavorite);
       return Result.success(Map.of("isFavorite", isFavorite));
     } catch (Exception e) {
       log.error("检查帖子收藏状态失败: {}", e.getMessage(), e);
@@ -129,6 +141,21 @@ public class ForumController {
     }
   }
 
+  /**
+   * 批量检查帖子是否已收藏，ids为逗号分隔的帖子ID
+   */
+  @GetMapping("/posts/favorite/check")
+  public Result<Map<Long, Boolean>> checkFavorites(@RequestParam List<Long> ids, @CurrentUser LoginUser loginUser) {
+    try {
+      Map<Long, Boolean> favorites = forumPostService.areFavorites(loginUser.getId(), ids);
+      log.debug("批量检查帖子收藏状态: username={}, count={}", loginUser.getUsername(), ids.size());
+      return Result.success(favorites);
+    } catch (Exception e) {
+      log.error("批量检查帖子收藏状态失败: {}", e.getMessage(), e);
+      return Result.error("检查收藏状态失败: " + e.getMessage());
+    }
+  }
+
   /**
    * 更新帖子浏览量
    */
@@ -142,16 +169,4 @@ public class ForumController {
       return Result.error("更新浏览量失败");
     }
   }
-
-  /**
-   * 从token中获取用户名
-   */
-  private String getUsernameFromToken(HttpServletRequest request) {
-    String authHeader = request.getHeader("Authorization");
-    if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-      throw new RuntimeException("未提供有效的token");
-    }
-    String token = authHeader.substring(7).trim();
-    return jwtUtils.getUsernameFromToken(token);
-  }
 }
\ No newline at end of file
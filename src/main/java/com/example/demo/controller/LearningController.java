@@ -1,15 +1,16 @@
 package com.example.demo.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.demo.common.CurrentUser;
+import com.example.demo.common.CursorPage;
+import com.example.demo.common.LoginUser;
 import com.example.demo.common.Result;
-import com.example.demo.config.JwtUtils;
 import com.example.demo.entity.LearningActivity;
 import com.example.demo.service.LearningActivityService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.web.bind.annotation.*;
 
-import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
 import java.util.Map;
 
@@ -23,7 +24,6 @@ import java.util.Map;
 public class LearningController {
 
   private final LearningActivityService learningActivityService;
-  private final JwtUtils jwtUtils;
 
   /**
    * 获取学习活动列表
@@ -32,15 +32,31 @@ public class LearningController {
   public Result<Page<LearningActivity>> getLearningActivities(
       @RequestParam(defaultValue = "1") int page,
       @RequestParam(defaultValue = "10") int size,
-      @RequestParam(required = false) String search) {
+      @RequestParam(required = false) String search,
+      @RequestParam(defaultValue = "true") boolean searchCount) {
     try {
-      Page<LearningActivity> activities = learningActivityService.getLearningActivities(page, size, search);
+      Page<LearningActivity> activities = learningActivityService.getLearningActivities(page, size, search, searchCount);
       return Result.success(activities);
     } catch (Exception e) {
       return Result.error(e.getMessage());
     }
   }
 
+  /**
+   * 游标分页获取学习活动列表，cursor取上一页返回的nextCursor，search为可选关键词
+   */
+  @GetMapping("/activities/cursor")
+  public Result<CursorPage<LearningActivity>> getLearningActivitiesByCursor(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(required = false) String search) {
+    try {
+      return Result.success(learningActivityService.getLearningActivitiesByCursor(cursor, size, search));
+    } catch (Exception e) {
+      return Result.error(e.getMessage());
+    }
+  }
+
   /**
    * 获取活动详情
    */
@@ -61,11 +77,10 @@ public class LearningController {
    * 预约活动 - 更新为支持token认证
    */
   @PostMapping("/activities/{id}/reserve")
-  public Result<String> reserveActivity(@PathVariable Long id, HttpServletRequest request) {
+  public Result<String> reserveActivity(@PathVariable Long id, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      learningActivityService.reserveActivity(username, id);
-      log.info("预约活动成功: username={}, activityId={}", username, id);
+      learningActivityService.reserveActivity(loginUser.getId(), id);
+      log.info("预约活动成功: username={}, activityId={}", loginUser.getUsername(), id);
       return Result.success("预约成功");
     } catch (Exception e) {
       log.error("预约活动失败: {}", e.getMessage(), e);
@@ -77,11 +92,10 @@ public class LearningController {
    * 取消预约 - 更新为支持token认证
    */
   @DeleteMapping("/activities/{id}/reserve")
-  public Result<String> cancelReservation(@PathVariable Long id, HttpServletRequest request) {
+  public Result<String> cancelReservation(@PathVariable Long id, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      learningActivityService.cancelReservation(username, id);
-      log.info("取消预约成功: username={}, activityId={}", username, id);
+      learningActivityService.cancelReservation(loginUser.getId(), id);
+      log.info("取消预约成功: username={}, activityId={}", loginUser.getUsername(), id);
       return Result.success("取消预约成功");
     } catch (Exception e) {
       log.error("取消预约失败: {}", e.getMessage(), e);
@@ -93,11 +107,10 @@ public class LearningController {
    * 添加收藏活动
    */
   @PostMapping("/activities/{id}/favorite")
-  public Result<String> addFavorite(@PathVariable Long id, HttpServletRequest request) {
+  public Result<String> addFavorite(@PathVariable Long id, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      learningActivityService.addFavorite(username, id);
-      log.info("添加活动收藏成功: username={}, activityId={}", username, id);
+      learningActivityService.addFavorite(loginUser.getId(), id);
+      log.info("添加活动收藏成功: username={}, activityId={}", loginUser.getUsername(), id);
       return Result.success("添加收藏成功");
     } catch (Exception e) {
       log.error("添加活动收藏失败: {}", e.getMessage(), e);
@@ -109,11 +122,10 @@ public class LearningController {
    * 移除收藏活动
    */
   @DeleteMapping("/activities/{id}/favorite")
-  public Result<String> removeFavorite(@PathVariable Long id, HttpServletRequest request) {
+  public Result<String> removeFavorite(@PathVariable Long id, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      learningActivityService.removeFavorite(username, id);
-      log.info("移除活动收藏成功: username={}, activityId={}", username, id);
+      learningActivityService.removeFavorite(loginUser.getId(), id);
+      log.info("移除活动收藏成功: username={}, activityId={}", loginUser.getUsername(), id);
       return Result.success("移除收藏成功");
     } catch (Exception e) {
       log.error("移除活动收藏失败: {}", e.getMessage(), e);
@@ -125,11 +137,10 @@ public class LearningController {
    * 检查活动是否已收藏
    */
   @GetMapping("/activities/{id}/favorite/check")
-  public Result<Map<String, Boolean>> checkFavorite(@PathVariable Long id, HttpServletRequest request) {
+  public Result<Map<String, Boolean>> checkFavorite(@PathVariable Long id, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      boolean isFavorite = learningActivityService.isFavorite(username, id);
-      log.debug("检查活动收藏状态: username={}, activityId={}, isFavorite={}", username, id, isFavorite);
+      boolean isFavorite = learningActivityService.isFavorite(loginUser.getId(), id);
+      log.debug("检查活动收藏状态: username={}, activityId={}, isFavorite={}", loginUser.getUsername(), id, isFavorite);
       return Result.success(Map.of("isFavorite", isFavorite));
     } catch (Exception e) {
       log.error("检查活动收藏状态失败: {}", e.getMessage(), e);
@@ -141,11 +152,10 @@ public class LearningController {
    * 检查是否已预约
    */
   @GetMapping("/activities/{id}/reserve/check")
-  public Result<Map<String, Boolean>> checkReservation(@PathVariable Long id, HttpServletRequest request) {
+  public Result<Map<String, Boolean>> checkReservation(@PathVariable Long id, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      boolean isReserved = learningActivityService.isReserved(username, id);
-      log.debug("检查预约状态: username={}, activityId={}, isReserved={}", username, id, isReserved);
+      boolean isReserved = learningActivityService.isReserved(loginUser.getId(), id);
+      log.debug("检查预约状态: username={}, activityId={}, isReserved={}", loginUser.getUsername(), id, isReserved);
       return Result.success(Map.of("isReserved", isReserved));
     } catch (Exception e) {
       log.error("检查预约状态失败: {}", e.getMessage(), e);
@@ -154,30 +164,47 @@ public class LearningController {
   }
 
   /**
-   * 获取用户预约列表
+   * 批量检查活动是否已收藏，ids为逗号分隔的活动ID
    */
-  @GetMapping("/reservations")
-  public Result<List<Map<String, Object>>> getUserReservations(HttpServletRequest request) {
+  @GetMapping("/activities/favorite/check")
+  public Result<Map<Long, Boolean>> checkFavorites(@RequestParam List<Long> ids, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      List<Map<String, Object>> reservations = learningActivityService.getUserReservations(username);
-      log.info("获取用户预约列表成功: username={}, 预约数量={}", username, reservations.size());
+      Map<Long, Boolean> favorites = learningActivityService.areFavorites(loginUser.getId(), ids);
+      log.debug("批量检查活动收藏状态: username={}, count={}", loginUser.getUsername(), ids.size());
+      return Result.success(favorites);
+    } catch (Exception e) {
+      log.error("批量检查活动收藏状态失败: {}", e.getMessage(), e);
+      return Result.error("检查收藏状态失败: " + e.getMessage());
+    }
+  }
+
+  /**
+   * 批量检查是否已预约，ids为逗号分隔的活动ID
+   */
+  @GetMapping("/activities/reserve/check")
+  public Result<Map<Long, Boolean>> checkReservations(@RequestParam List<Long> ids, @CurrentUser LoginUser loginUser) {
+    try {
+      Map<Long, Boolean> reservations = learningActivityService.areReserved(loginUser.getId(), ids);
+      log.debug("批量检查预约状态: username={}, count={}", loginUser.getUsername(), ids.size());
       return Result.success(reservations);
     } catch (Exception e) {
-      log.error("获取用户预约列表失败: {}", e.getMessage(), e);
-      return Result.error("获取预约列表失败: " + e.getMessage());
+      log.error("批量检查预约状态失败: {}", e.getMessage(), e);
+      return Result.error("检查预约状态失败: " + e.getMessage());
     }
   }
 
   /**
-   * 从token中获取用户名
+   * 获取用户预约列表
    */
-  private String getUsernameFromToken(HttpServletRequest request) {
-    String authHeader = request.getHeader("Authorization");
-    if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-      throw new RuntimeException("未提供有效的token");
+  @GetMapping("/reservations")
+  public Result<List<Map<String, Object>>> getUserReservations(@CurrentUser LoginUser loginUser) {
+    try {
+      List<Map<String, Object>> reservations = learningActivityService.getUserReservations(loginUser.getId());
+      log.info("获取用户预约列表成功: username={}, 预约数量={}", loginUser.getUsername(), reservations.size());
+      return Result.success(reservations);
+    } catch (Exception e) {
+      log.error("获取用户预约列表失败: {}", e.getMessage(), e);
+      return Result.error("获取预约列表失败: " + e.getMessage());
     }
-    String token = authHeader.substring(7).trim();
-    return jwtUtils.getUsernameFromToken(token);
   }
 }
\ No newline at end of file
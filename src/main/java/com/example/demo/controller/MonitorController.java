@@ -0,0 +1,66 @@
+package com.example.demo.controller;
+
+import com.example.demo.common.Result;
+import com.example.demo.config.HikariPoolMetrics;
+import com.example.demo.config.JwtUtils;
+import com.example.demo.service.BalanceLedgerService;
+import com.example.demo.service.FavoriteIdCache;
+import com.example.demo.service.ProductService;
+import com.example.demo.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 运行指标控制器，需登录后访问
+ */
+@RestController
+@RequestMapping("/api/monitor")
+@RequiredArgsConstructor
+@Log4j2
+public class MonitorController {
+
+  private final HikariPoolMetrics hikariPoolMetrics;
+  private final JwtUtils jwtUtils;
+  private final UserService userService;
+  private final ProductService productService;
+  private final FavoriteIdCache favoriteIdCache;
+  private final BalanceLedgerService balanceLedgerService;
+
+  /**
+   * 获取数据库连接池指标
+   */
+  @GetMapping("/pool")
+  public Result<Map<String, Object>> getPoolStats() {
+    try {
+      return Result.success(hikariPoolMetrics.getPoolStats());
+    } catch (Exception e) {
+      log.error("获取连接池指标失败: {}", e.getMessage(), e);
+      return Result.error("获取连接池指标失败: " + e.getMessage());
+    }
+  }
+
+  /**
+   * 获取各本地缓存的命中统计
+   */
+  @GetMapping("/caches")
+  public Result<Map<String, Object>> getCacheStats() {
+    try {
+      Map<String, Object> stats = new LinkedHashMap<>();
+      stats.put("jwtClaims", jwtUtils.getCacheStats());
+      stats.put("users", userService.getUserCacheStats());
+      stats.put("catalog", productService.getCatalogCacheStats());
+      stats.put("favoriteIds", favoriteIdCache.getCacheStats());
+      stats.put("balances", balanceLedgerService.getBalanceCacheStats());
+      return Result.success(stats);
+    } catch (Exception e) {
+      log.error("获取缓存统计失败: {}", e.getMessage(), e);
+      return Result.error("获取缓存统计失败: " + e.getMessage());
+    }
+  }
+}
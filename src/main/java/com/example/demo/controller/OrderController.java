@@ -1,14 +1,16 @@
 package com.example.demo.controller;
 
+import com.example.demo.common.CurrentUser;
+import com.example.demo.common.CursorPage;
+import com.example.demo.common.LoginUser;
 import com.example.demo.common.Result;
-import com.example.demo.config.JwtUtils;
 import com.example.demo.entity.Order;
+import com.example.demo.service.IdempotencyService;
 import com.example.demo.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.web.bind.annotation.*;
 
-import jakarta.servlet.http.HttpServletRequest;
 import java.util.List;
 import java.util.Map;
 
@@ -22,17 +24,21 @@ import java.util.Map;
 public class OrderController {
 
   private final OrderService orderService;
-  private final JwtUtils jwtUtils;
+  private final IdempotencyService idempotencyService;
 
   /**
-   * 购物车结算下单
+   * 购物车结算下单，携带Idempotency-Key请求头时，同一个键的重试只会下单一次
    */
   @PostMapping("/checkout")
-  public Result<Order> checkout(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
+  public Result<Order> checkout(@RequestBody Map<String, String> request,
+      @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+      @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(httpRequest);
-      Order order = orderService.checkoutFromCart(username, request);
-      log.info("购物车结算成功: username={}, orderNumber={}", username, order.getOrderNumber());
+      Order order = idempotencyKey == null
+          ? orderService.checkoutFromCart(loginUser.getUsername(), request)
+          : idempotencyService.execute("checkout", loginUser.getId(), idempotencyKey,
+              () -> orderService.checkoutFromCart(loginUser.getUsername(), request));
+      log.info("购物车结算成功: username={}, orderNumber={}", loginUser.getUsername(), order.getOrderNumber());
       return Result.success("下单成功", order);
     } catch (Exception e) {
       log.error("购物车结算失败: {}", e.getMessage(), e);
@@ -44,11 +50,10 @@ public class OrderController {
    * 获取用户订单列表
    */
   @GetMapping
-  public Result<List<Order>> getUserOrders(HttpServletRequest request) {
+  public Result<List<Order>> getUserOrders(@CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      List<Order> orders = orderService.getUserOrders(username);
-      log.info("获取用户订单列表成功: username={}, 订单数量={}", username, orders.size());
+      List<Order> orders = orderService.getUserOrders(loginUser.getId());
+      log.info("获取用户订单列表成功: username={}, 订单数量={}", loginUser.getUsername(), orders.size());
       return Result.success(orders);
     } catch (Exception e) {
       log.error("获取用户订单列表失败: {}", e.getMessage(), e);
@@ -56,15 +61,30 @@ public class OrderController {
     }
   }
 
+  /**
+   * 游标分页获取用户订单列表，cursor取上一页返回的nextCursor
+   */
+  @GetMapping("/cursor")
+  public Result<CursorPage<Order>> getUserOrdersByCursor(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "10") int size,
+      @CurrentUser LoginUser loginUser) {
+    try {
+      return Result.success(orderService.getUserOrdersByCursor(loginUser.getId(), cursor, size));
+    } catch (Exception e) {
+      log.error("游标分页获取订单列表失败: {}", e.getMessage(), e);
+      return Result.error("获取订单列表失败: " + e.getMessage());
+    }
+  }
+
   /**
    * 获取订单详情
    */
   @GetMapping("/{orderId}")
-  public Result<Order> getOrderDetail(@PathVariable Long orderId, HttpServletRequest request) {
+  public Result<Order> getOrderDetail(@PathVariable Long orderId, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      Order order = orderService.getOrderDetail(orderId, username);
-      log.info("获取订单详情成功: username={}, orderId={}", username, orderId);
+      Order order = orderService.getOrderDetail(orderId, loginUser.getId());
+      log.info("获取订单详情成功: username={}, orderId={}", loginUser.getUsername(), orderId);
       return Result.success(order);
     } catch (Exception e) {
       log.error("获取订单详情失败: {}", e.getMessage(), e);
@@ -76,27 +96,14 @@ public class OrderController {
    * 取消订单
    */
   @PutMapping("/{orderId}/cancel")
-  public Result<String> cancelOrder(@PathVariable Long orderId, HttpServletRequest request) {
+  public Result<String> cancelOrder(@PathVariable Long orderId, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      orderService.cancelOrder(orderId, username);
-      log.info("取消订单成功: username={}, orderId={}", username, orderId);
+      orderService.cancelOrder(orderId, loginUser.getId());
+      log.info("取消订单成功: username={}, orderId={}", loginUser.getUsername(), orderId);
       return Result.success("订单取消成功");
     } catch (Exception e) {
       log.error("取消订单失败: {}", e.getMessage(), e);
       return Result.error("取消订单失败: " + e.getMessage());
     }
   }
-
-  /**
-   * 从token中获取用户名
-   */
-  private String getUsernameFromToken(HttpServletRequest request) {
-    String authHeader = request.getHeader("Authorization");
-    if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-      throw new RuntimeException("未提供有效的token");
-    }
-    String token = authHeader.substring(7).trim();
-    return jwtUtils.getUsernameFromToken(token);
-  }
 }
\ No newline at end of file
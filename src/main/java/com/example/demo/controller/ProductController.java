@@ -1,6 +1,7 @@
 package com.example.demo.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.demo.common.CursorPage;
 import com.example.demo.common.Result;
 import com.example.demo.entity.Product;
 import com.example.demo.service.ProductService;
@@ -25,15 +26,32 @@ public class ProductController {
       @RequestParam(defaultValue = "1") int page,
       @RequestParam(defaultValue = "10") int size,
       @RequestParam(required = false) String search,
-      @RequestParam(required = false) String category) {
+      @RequestParam(required = false) String category,
+      @RequestParam(defaultValue = "true") boolean searchCount) {
     try {
-      Page<Product> products = productService.getProducts(page, size, search, category);
+      Page<Product> products = productService.getProducts(page, size, search, category, searchCount);
       return Result.success(products);
     } catch (Exception e) {
       return Result.error(e.getMessage());
     }
   }
 
+  /**
+   * 游标分页获取商品列表，cursor取上一页返回的nextCursor
+   */
+  @GetMapping("/cursor")
+  public Result<CursorPage<Product>> getProductsByCursor(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "10") int size,
+      @RequestParam(required = false) String search,
+      @RequestParam(required = false) String category) {
+    try {
+      return Result.success(productService.getProductsByCursor(cursor, size, search, category));
+    } catch (Exception e) {
+      return Result.error(e.getMessage());
+    }
+  }
+
   /**
    * 获取商品详情
    */
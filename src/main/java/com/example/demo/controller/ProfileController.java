@@ -1,7 +1,9 @@
 package com.example.demo.controller;
 
+import com.example.demo.common.CurrentUser;
+import com.example.demo.common.CursorPage;
+import com.example.demo.common.LoginUser;
 import com.example.demo.common.Result;
-import com.example.demo.config.JwtUtils;
 import com.example.demo.entity.CartItem;
 import com.example.demo.entity.Favorite;
 import com.example.demo.entity.Order;
@@ -9,12 +11,12 @@ import com.example.demo.entity.Reservation;
 import com.example.demo.service.CartItemService;
 import com.example.demo.service.FavoriteService;
 import com.example.demo.service.OrderService;
+import com.example.demo.service.ProfileSummaryService;
 import com.example.demo.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.web.bind.annotation.*;
 
-import jakarta.servlet.http.HttpServletRequest;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
@@ -32,17 +34,32 @@ public class ProfileController {
   private final CartItemService cartItemService;
   private final OrderService orderService;
   private final UserService userService;
-  private final JwtUtils jwtUtils;
+  private final ProfileSummaryService profileSummaryService;
+
+  /**
+   * 个人主页汇总 - 一次请求返回收藏、订单、帖子、预约、充值记录各分区的最近记录和总数
+   */
+  @GetMapping("/summary")
+  public Result<Map<String, Object>> getSummary(@CurrentUser LoginUser loginUser,
+      @RequestParam(required = false) Integer limit) {
+    try {
+      Map<String, Object> summary = profileSummaryService.getSummary(loginUser.getId(), limit);
+      log.info("获取个人主页汇总成功: username={}", loginUser.getUsername());
+      return Result.success(summary);
+    } catch (Exception e) {
+      log.error("获取个人主页汇总失败: {}", e.getMessage(), e);
+      return Result.error("获取个人主页汇总失败: " + e.getMessage());
+    }
+  }
 
   /**
    * 获取用户收藏列表
    */
   @GetMapping("/favorites")
-  public Result<List<Favorite>> getUserFavorites(HttpServletRequest request) {
+  public Result<List<Favorite>> getUserFavorites(@CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      List<Favorite> favorites = favoriteService.getUserFavorites(username);
-      log.info("获取用户收藏列表成功: username={}, 收藏数量={}", username, favorites.size());
+      List<Favorite> favorites = favoriteService.getUserFavorites(loginUser.getId());
+      log.info("获取用户收藏列表成功: username={}, 收藏数量={}", loginUser.getUsername(), favorites.size());
       return Result.success(favorites);
     } catch (Exception e) {
       log.error("获取用户收藏列表失败: {}", e.getMessage(), e);
@@ -50,6 +67,22 @@ public class ProfileController {
     }
   }
 
+  /**
+   * 游标分页获取用户收藏列表，cursor取上一页返回的nextCursor
+   */
+  @GetMapping("/favorites/cursor")
+  public Result<CursorPage<Favorite>> getUserFavoritesByCursor(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "10") int size,
+      @CurrentUser LoginUser loginUser) {
+    try {
+      return Result.success(favoriteService.getUserFavoritesByCursor(loginUser.getId(), cursor, size));
+    } catch (Exception e) {
+      log.error("游标分页获取收藏列表失败: {}", e.getMessage(), e);
+      return Result.error("获取收藏列表失败: " + e.getMessage());
+    }
+  }
+
   /**
    * 添加收藏
    */
@@ -86,11 +119,10 @@ public class ProfileController {
    * 获取用户订单列表
    */
   @GetMapping("/orders")
-  public Result<List<Order>> getUserOrders(HttpServletRequest request) {
+  public Result<List<Order>> getUserOrders(@CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      List<Order> orders = orderService.getUserOrders(username);
-      log.info("获取用户订单列表成功: username={}, 订单数量={}", username, orders.size());
+      List<Order> orders = orderService.getUserOrders(loginUser.getId());
+      log.info("获取用户订单列表成功: username={}, 订单数量={}", loginUser.getUsername(), orders.size());
       return Result.success(orders);
     } catch (Exception e) {
       log.error("获取用户订单列表失败: {}", e.getMessage(), e);
@@ -102,11 +134,10 @@ public class ProfileController {
    * 获取用户发布的论坛帖子
    */
   @GetMapping("/posts")
-  public Result<List<Map<String, Object>>> getUserPosts(HttpServletRequest request) {
+  public Result<List<Map<String, Object>>> getUserPosts(@CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      List<Map<String, Object>> posts = userService.getUserPosts(username);
-      log.info("获取用户帖子列表成功: username={}, 帖子数量={}", username, posts.size());
+      List<Map<String, Object>> posts = userService.getUserPosts(loginUser.getId());
+      log.info("获取用户帖子列表成功: username={}, 帖子数量={}", loginUser.getUsername(), posts.size());
       return Result.success(posts);
     } catch (Exception e) {
       log.error("获取用户帖子列表失败: {}", e.getMessage(), e);
@@ -118,11 +149,10 @@ public class ProfileController {
    * 获取用户预约列表
    */
   @GetMapping("/reservations")
-  public Result<List<Map<String, Object>>> getUserReservations(HttpServletRequest request) {
+  public Result<List<Map<String, Object>>> getUserReservations(@CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      List<Map<String, Object>> reservations = userService.getUserReservations(username);
-      log.info("获取用户预约列表成功: username={}, 预约数量={}", username, reservations.size());
+      List<Map<String, Object>> reservations = userService.getUserReservations(loginUser.getId());
+      log.info("获取用户预约列表成功: username={}, 预约数量={}", loginUser.getUsername(), reservations.size());
       return Result.success(reservations);
     } catch (Exception e) {
       log.error("获取用户预约列表失败: {}", e.getMessage(), e);
@@ -206,14 +236,13 @@ public class ProfileController {
    * 充值余额
    */
   @PostMapping("/recharge")
-  public Result<String> recharge(@RequestBody Map<String, Object> request, HttpServletRequest httpRequest) {
+  public Result<String> recharge(@RequestBody Map<String, Object> request, @CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(httpRequest);
       BigDecimal amount = new BigDecimal(request.get("amount").toString());
       String paymentMethod = (String) request.get("paymentMethod");
 
-      userService.recharge(username, amount, paymentMethod);
-      log.info("用户充值成功: username={}, amount={}, paymentMethod={}", username, amount, paymentMethod);
+      userService.recharge(loginUser.getUsername(), amount, paymentMethod);
+      log.info("用户充值成功: username={}, amount={}, paymentMethod={}", loginUser.getUsername(), amount, paymentMethod);
       return Result.success("充值成功");
     } catch (Exception e) {
       log.error("充值失败: {}", e.getMessage(), e);
@@ -225,27 +254,14 @@ public class ProfileController {
    * 获取充值记录
    */
   @GetMapping("/recharge-history")
-  public Result<List<Map<String, Object>>> getRechargeHistory(HttpServletRequest request) {
+  public Result<List<Map<String, Object>>> getRechargeHistory(@CurrentUser LoginUser loginUser) {
     try {
-      String username = getUsernameFromToken(request);
-      List<Map<String, Object>> history = userService.getRechargeHistory(username);
-      log.info("获取充值记录成功: username={}, 记录数量={}", username, history.size());
+      List<Map<String, Object>> history = userService.getRechargeHistory(loginUser.getId());
+      log.info("获取充值记录成功: username={}, 记录数量={}", loginUser.getUsername(), history.size());
       return Result.success(history);
     } catch (Exception e) {
       log.error("获取充值记录失败: {}", e.getMessage(), e);
       return Result.error("获取充值记录失败: " + e.getMessage());
     }
   }
-
-  /**
-   * 从token中获取用户名
-   */
-  private String getUsernameFromToken(HttpServletRequest request) {
-    String authHeader = request.getHeader("Authorization");
-    if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-      throw new RuntimeException("未提供有效的token");
-    }
-    String token = authHeader.substring(7).trim();
-    return jwtUtils.getUsernameFromToken(token);
-  }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.example.demo.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 余额流水实体类 - 只追加不修改，每次余额变动对应一条流水
+ */
+@Data
+@TableName("balance_ledger")
+public class BalanceLedgerEntry {
+  @TableId(type = IdType.AUTO)
+  private Long id;
+
+  private Long userId;
+  private String entryType; // 流水类型：recharge, payment, refund
+  private BigDecimal amount; // 变动金额：入账为正，出账为负
+  private String channel; // 支付方式：alipay, wechat, bank_card, balance
+  private String bizNo; // 业务单号：充值流水号或订单号
+  private String remark; // 备注
+
+  @TableField(fill = FieldFill.INSERT)
+  private LocalDateTime createTime;
+}
@@ -29,4 +29,7 @@ public class Favorite {
 
   @TableField(exist = false)
   private Integer views;
+
+  @TableField(exist = false)
+  private LocalDateTime postCreateTime;
 }
\ No newline at end of file
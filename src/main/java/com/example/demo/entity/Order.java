@@ -4,6 +4,7 @@ import com.baomidou.mybatisplus.annotation.*;
 import lombok.Data;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 订单实体类
@@ -30,4 +31,8 @@ public class Order {
 
   @TableField(fill = FieldFill.INSERT_UPDATE)
   private LocalDateTime updateTime;
+
+  // 非数据库字段，订单项
+  @TableField(exist = false)
+  private List<OrderItem> items;
 }
\ No newline at end of file
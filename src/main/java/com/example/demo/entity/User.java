@@ -21,6 +21,8 @@ public class User {
   private String phone;
   private String gender;
   private String userType;
+  // 余额快照只能通过BalanceLedgerService原子增减，updateById不写入该列
+  @TableField(updateStrategy = FieldStrategy.NEVER)
   private BigDecimal balance; // 添加余额字段
 
   @TableField(fill = FieldFill.INSERT)
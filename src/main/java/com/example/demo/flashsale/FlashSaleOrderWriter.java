@@ -0,0 +1,91 @@
+package com.example.demo.flashsale;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.OrderItem;
+import com.example.demo.entity.Product;
+import com.example.demo.mapper.OrderItemMapper;
+import com.example.demo.mapper.OrderMapper;
+import com.example.demo.metrics.BusinessMetrics;
+import com.example.demo.service.BalanceLedgerService;
+import com.example.demo.service.OrderNumberGenerator;
+import com.example.demo.service.ProductService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 秒杀订单写入器 - 在一个事务中提交同一商品的一批排队请求
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class FlashSaleOrderWriter {
+
+  private final OrderMapper orderMapper;
+  private final OrderItemMapper orderItemMapper;
+  private final ProductService productService;
+  private final BalanceLedgerService balanceLedgerService;
+  private final OrderNumberGenerator orderNumberGenerator;
+  private final BusinessMetrics businessMetrics;
+
+  /**
+   * 逐个条件扣减余额并创建订单，余额不足的请求在结果中对应null；
+   * 成功请求的订单项一次多行插入，商品库存按总数量一次扣减
+   */
+  @Transactional
+  public List<Order> commit(Product product, List<FlashSaleTicket> batch) {
+    List<Order> orders = new ArrayList<>(batch.size());
+    List<OrderItem> orderItems = new ArrayList<>(batch.size());
+    int totalQuantity = 0;
+
+    for (FlashSaleTicket ticket : batch) {
+      BigDecimal amount = product.getPrice().multiply(BigDecimal.valueOf(ticket.getQuantity()));
+      String orderNumber = orderNumberGenerator.next();
+      if (!balanceLedgerService.debit(ticket.getUserId(), amount, BalanceLedgerService.PAYMENT, "balance",
+          orderNumber, "秒杀订单支付")) {
+        orders.add(null);
+        continue;
+      }
+
+      Order order = new Order();
+      order.setOrderNumber(orderNumber);
+      order.setUserId(ticket.getUserId());
+      order.setTotalAmount(amount);
+      order.setStatus("paid");
+      order.setPaymentMethod("balance");
+      order.setShippingAddress(ticket.getShippingAddress());
+      order.setRemark(ticket.getRemark());
+      orderMapper.insert(order);
+
+      OrderItem orderItem = new OrderItem();
+      orderItem.setOrderId(order.getId());
+      orderItem.setProductId(product.getId());
+      orderItem.setProductName(product.getName());
+      orderItem.setProductPrice(product.getPrice());
+      orderItem.setProductImageUrl(product.getImageUrl());
+      orderItem.setQuantity(ticket.getQuantity());
+      orderItem.setSubtotal(amount);
+      orderItems.add(orderItem);
+      order.setItems(List.of(orderItem));
+
+      orders.add(order);
+      totalQuantity += ticket.getQuantity();
+      businessMetrics.recordCheckout(amount);
+    }
+
+    if (!orderItems.isEmpty()) {
+      orderItemMapper.insertBatch(orderItems);
+      if (!productService.adjustStock(Map.of(product.getId(), -totalQuantity))) {
+        throw new RuntimeException("商品库存不足：" + product.getName());
+      }
+    }
+    log.debug("秒杀批次提交: productId={}, requests={}, orders={}", product.getId(), batch.size(), orderItems.size());
+    return orders;
+  }
+}
@@ -0,0 +1,312 @@
+package com.example.demo.flashsale;
+
+import com.example.demo.entity.Order;
+import com.example.demo.entity.Product;
+import com.example.demo.service.ProductService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 秒杀服务 - 参加秒杀的商品在启动时把库存预加载为内存令牌，下单请求只在内存中扣减令牌并排队，
+ * 不访问数据库；每个商品由单个写线程分批提交订单，商品行只被这个线程更新，结算事务不再争抢同一行锁
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class FlashSaleService {
+
+  private static final long POLL_MILLIS = 200;
+
+  private final ProductService productService;
+  private final FlashSaleOrderWriter flashSaleOrderWriter;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${flash-sale.product-ids:}")
+  private List<Long> productIds;
+
+  @Value("${flash-sale.queue-capacity:10000}")
+  private int queueCapacity;
+
+  @Value("${flash-sale.batch-size:100}")
+  private int batchSize;
+
+  @Value("${flash-sale.max-quantity-per-user:1}")
+  private int maxQuantityPerUser;
+
+  @Value("${flash-sale.ticket-ttl-seconds:1800}")
+  private long ticketTtlSeconds;
+
+  @Value("${flash-sale.shutdown-timeout-ms:30000}")
+  private long shutdownTimeoutMillis;
+
+  private final Map<Long, Sale> sales = new ConcurrentHashMap<>();
+
+  private Cache<String, FlashSaleTicket> tickets;
+
+  @PostConstruct
+  public void start() {
+    tickets = Caffeine.newBuilder()
+        .expireAfterWrite(ticketTtlSeconds, TimeUnit.SECONDS)
+        .build();
+    for (Long productId : productIds) {
+      Product product = productService.getById(productId);
+      if (product == null) {
+        log.warn("秒杀商品不存在，已跳过: productId={}", productId);
+        continue;
+      }
+      Sale sale = new Sale(productId, product.getStock(), queueCapacity);
+      sales.put(productId, sale);
+      Gauge.builder("flash.sale.tokens", sale.tokens, AtomicInteger::get)
+          .description("秒杀剩余令牌数")
+          .tag("product", productId.toString())
+          .register(meterRegistry);
+      Gauge.builder("flash.sale.queue", sale.queue, BlockingQueue::size)
+          .description("秒杀排队请求数")
+          .tag("product", productId.toString())
+          .register(meterRegistry);
+      sale.writer = new Thread(() -> drain(sale), "flash-sale-" + productId);
+      sale.writer.start();
+      log.info("秒杀已开始: productId={}, stock={}", productId, product.getStock());
+    }
+  }
+
+  /**
+   * 应用关闭时停止接收请求，等待写线程提交完已排队的请求
+   */
+  @PreDestroy
+  public void stop() {
+    sales.values().forEach(sale -> sale.accepting = false);
+    for (Sale sale : sales.values()) {
+      try {
+        sale.writer.join(shutdownTimeoutMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (!sale.queue.isEmpty()) {
+        log.warn("秒杀写线程未在超时前处理完排队请求: productId={}, remaining={}",
+            sale.productId, sale.queue.size());
+      }
+    }
+  }
+
+  /**
+   * 商品是否正在秒杀，秒杀商品的库存只由秒杀写线程扣减
+   */
+  public boolean isOnSale(Long productId) {
+    return sales.containsKey(productId);
+  }
+
+  /**
+   * 提交秒杀请求：扣减内存令牌后进入排队，立即返回pending状态的排队凭证
+   */
+  public FlashSaleTicket submit(Long userId, Long productId, int quantity, Map<String, String> orderInfo) {
+    Sale sale = sales.get(productId);
+    if (sale == null || !sale.accepting) {
+      throw new RuntimeException("该商品未参加秒杀");
+    }
+    if (quantity < 1 || quantity > maxQuantityPerUser) {
+      throw new RuntimeException("每人限购" + maxQuantityPerUser + "件");
+    }
+    if (sale.tokens.get() < quantity) {
+      throw new RuntimeException("商品已售罄");
+    }
+    if (!sale.buyers.add(userId)) {
+      throw new RuntimeException("您已参与过该商品的秒杀");
+    }
+    if (!sale.acquire(quantity)) {
+      sale.buyers.remove(userId);
+      throw new RuntimeException("商品已售罄");
+    }
+
+    FlashSaleTicket ticket = new FlashSaleTicket(UUID.randomUUID().toString(), userId, productId, quantity,
+        orderInfo.get("shippingAddress"), orderInfo.get("remark"));
+    tickets.put(ticket.getTicketId(), ticket);
+    if (!sale.queue.offer(ticket)) {
+      tickets.invalidate(ticket.getTicketId());
+      sale.release(ticket);
+      throw new RuntimeException("排队人数过多，请稍后重试");
+    }
+    log.debug("秒杀请求已排队: userId={}, productId={}, ticketId={}", userId, productId, ticket.getTicketId());
+    return ticket;
+  }
+
+  /**
+   * 秒杀商品的订单取消提交后归还令牌，库存已由取消订单恢复，取消的数量可以重新售出，用户也可以重新参与；
+   * 未参加秒杀的商品忽略
+   */
+  public void releaseCancelled(Long userId, Map<Long, Integer> quantities) {
+    quantities.forEach((productId, quantity) -> {
+      Sale sale = sales.get(productId);
+      if (sale != null) {
+        sale.release(userId, quantity);
+        log.info("秒杀订单已取消，归还令牌: userId={}, productId={}, quantity={}", userId, productId, quantity);
+      }
+    });
+  }
+
+  /**
+   * 查询排队凭证，只能查询自己的凭证
+   */
+  public FlashSaleTicket getTicket(Long userId, String ticketId) {
+    FlashSaleTicket ticket = tickets.getIfPresent(ticketId);
+    if (ticket == null || !ticket.getUserId().equals(userId)) {
+      throw new RuntimeException("排队记录不存在或已过期");
+    }
+    return ticket;
+  }
+
+  /**
+   * 获取各秒杀商品的剩余令牌和排队数
+   */
+  public List<Map<String, Object>> getSaleStats() {
+    List<Map<String, Object>> stats = new ArrayList<>(sales.size());
+    for (Sale sale : sales.values()) {
+      Map<String, Object> stat = new LinkedHashMap<>();
+      stat.put("productId", sale.productId);
+      stat.put("remaining", sale.tokens.get());
+      stat.put("queued", sale.queue.size());
+      stat.put("buyers", sale.buyers.size());
+      stats.add(stat);
+    }
+    return stats;
+  }
+
+  /**
+   * 写线程主循环：取出一个请求后顺带取出已排队的请求，凑成一批提交；停止接收后处理完剩余请求再退出
+   */
+  private void drain(Sale sale) {
+    List<FlashSaleTicket> batch = new ArrayList<>(batchSize);
+    while (sale.accepting || !sale.queue.isEmpty()) {
+      try {
+        FlashSaleTicket first = sale.queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        sale.queue.drainTo(batch, batchSize - 1);
+        commit(sale, batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.warn("秒杀写线程被中断: productId={}, remaining={}", sale.productId, sale.queue.size());
+        return;
+      } catch (Exception e) {
+        log.error("秒杀批次处理异常: productId={}, error={}", sale.productId, e.getMessage(), e);
+        for (FlashSaleTicket ticket : batch) {
+          if (FlashSaleTicket.PENDING.equals(ticket.getStatus())) {
+            fail(sale, ticket, "系统繁忙，请稍后重试");
+          }
+        }
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  private void commit(Sale sale, List<FlashSaleTicket> batch) {
+    Product product = productService.getProductDetail(sale.productId);
+    if (product == null) {
+      batch.forEach(ticket -> fail(sale, ticket, "商品不存在"));
+      return;
+    }
+    try {
+      complete(sale, batch, flashSaleOrderWriter.commit(product, batch));
+    } catch (Exception e) {
+      if (batch.size() == 1) {
+        fail(sale, batch.get(0), e.getMessage());
+        return;
+      }
+      // 整批回滚时逐个重试，只让出错的请求失败
+      log.warn("秒杀批次提交失败，逐个重试: productId={}, size={}, error={}",
+          sale.productId, batch.size(), e.getMessage());
+      for (FlashSaleTicket ticket : batch) {
+        try {
+          complete(sale, List.of(ticket), flashSaleOrderWriter.commit(product, List.of(ticket)));
+        } catch (Exception ex) {
+          fail(sale, ticket, ex.getMessage());
+        }
+      }
+    }
+  }
+
+  private void complete(Sale sale, List<FlashSaleTicket> batch, List<Order> orders) {
+    for (int i = 0; i < batch.size(); i++) {
+      Order order = orders.get(i);
+      if (order == null) {
+        fail(sale, batch.get(i), "余额不足");
+      } else {
+        batch.get(i).succeed(order);
+      }
+    }
+  }
+
+  /**
+   * 请求失败时归还令牌，用户可以重新参与
+   */
+  private void fail(Sale sale, FlashSaleTicket ticket, String reason) {
+    sale.release(ticket);
+    ticket.fail(reason);
+    log.info("秒杀请求失败: userId={}, productId={}, ticketId={}, reason={}",
+        ticket.getUserId(), sale.productId, ticket.getTicketId(), reason);
+  }
+
+  /**
+   * 单个商品的秒杀状态
+   */
+  private static final class Sale {
+
+    private final Long productId;
+    private final AtomicInteger tokens;
+    private final Set<Long> buyers = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<FlashSaleTicket> queue;
+    private volatile boolean accepting = true;
+    private Thread writer;
+
+    Sale(Long productId, int stock, int queueCapacity) {
+      this.productId = productId;
+      this.tokens = new AtomicInteger(stock);
+      this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    boolean acquire(int quantity) {
+      while (true) {
+        int remaining = tokens.get();
+        if (remaining < quantity) {
+          return false;
+        }
+        if (tokens.compareAndSet(remaining, remaining - quantity)) {
+          return true;
+        }
+      }
+    }
+
+    void release(FlashSaleTicket ticket) {
+      release(ticket.getUserId(), ticket.getQuantity());
+    }
+
+    void release(Long userId, int quantity) {
+      tokens.addAndGet(quantity);
+      buyers.remove(userId);
+    }
+  }
+}
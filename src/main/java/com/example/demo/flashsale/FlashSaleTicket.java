@@ -0,0 +1,58 @@
+package com.example.demo.flashsale;
+
+import com.example.demo.entity.Order;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 秒杀排队凭证 - 请求被接受时为pending，写线程提交后变为success或failed，客户端凭ticketId轮询结果
+ */
+@Getter
+public class FlashSaleTicket {
+
+  public static final String PENDING = "pending";
+  public static final String SUCCESS = "success";
+  public static final String FAILED = "failed";
+
+  private final String ticketId;
+  private final Long userId;
+  private final Long productId;
+  private final int quantity;
+  private final LocalDateTime createTime;
+
+  @JsonIgnore
+  private final String shippingAddress;
+
+  @JsonIgnore
+  private final String remark;
+
+  // 由写线程更新，status最后写入，读到终态时订单信息一定可见
+  private volatile Long orderId;
+  private volatile String orderNumber;
+  private volatile String message;
+  private volatile String status = PENDING;
+
+  public FlashSaleTicket(String ticketId, Long userId, Long productId, int quantity, String shippingAddress,
+      String remark) {
+    this.ticketId = ticketId;
+    this.userId = userId;
+    this.productId = productId;
+    this.quantity = quantity;
+    this.shippingAddress = shippingAddress;
+    this.remark = remark;
+    this.createTime = LocalDateTime.now();
+  }
+
+  void succeed(Order order) {
+    orderId = order.getId();
+    orderNumber = order.getOrderNumber();
+    status = SUCCESS;
+  }
+
+  void fail(String reason) {
+    message = reason;
+    status = FAILED;
+  }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.demo.entity.BalanceLedgerEntry;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 余额流水Mapper接口
+ */
+@Mapper
+public interface BalanceLedgerMapper extends BaseMapper<BalanceLedgerEntry> {
+
+  /**
+   * 充值记录即recharge类型的流水，列名与原充值记录表保持一致
+   */
+  String USER_RECHARGE_HISTORY = "SELECT bl.id, bl.user_id, bl.amount, bl.channel AS payment_method, " +
+      "'success' AS status, bl.biz_no AS transaction_id, bl.remark, bl.create_time, bl.create_time AS update_time, " +
+      "u.username, u.nickname " +
+      "FROM balance_ledger bl " +
+      "LEFT JOIN users u ON bl.user_id = u.id " +
+      "WHERE bl.user_id = #{userId} AND bl.entry_type = 'recharge' " +
+      "ORDER BY bl.create_time DESC, bl.id DESC";
+
+  @Select(USER_RECHARGE_HISTORY)
+  List<Map<String, Object>> selectUserRechargeHistory(@Param("userId") Long userId);
+
+  /**
+   * 分页获取用户充值记录
+   */
+  @Select(USER_RECHARGE_HISTORY)
+  Page<Map<String, Object>> selectUserRechargeHistoryPage(Page<Map<String, Object>> page,
+      @Param("userId") Long userId);
+}
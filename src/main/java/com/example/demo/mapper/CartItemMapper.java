@@ -2,11 +2,14 @@ package com.example.demo.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.example.demo.entity.CartItem;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
-import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 购物车Mapper接口
@@ -14,11 +17,45 @@ import java.util.List;
 @Mapper
 public interface CartItemMapper extends BaseMapper<CartItem> {
 
-  @Select("SELECT ci.*, p.name as productName, p.price as productPrice, p.image_url as productImageUrl, " +
-      "p.stock as productStock " +
-      "FROM cart_items ci " +
-      "LEFT JOIN products p ON ci.product_id = p.id " +
-      "WHERE ci.user_id = #{userId} " +
-      "ORDER BY ci.create_time DESC")
-  List<CartItem> selectCartItemsWithProduct(@Param("userId") Long userId);
-}
\ No newline at end of file
+  /**
+   * 多行写入购物车，已有的商品按unique_cart_item累加数量
+   */
+  @Insert("<script>" +
+      "INSERT INTO cart_items (user_id, product_id, quantity) VALUES " +
+      "<foreach collection='quantities' index='productId' item='quantity' separator=','>" +
+      "(#{userId}, #{productId}, #{quantity})" +
+      "</foreach> " +
+      "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)" +
+      "</script>")
+  int upsertBatch(@Param("userId") Long userId, @Param("quantities") Map<Long, Integer> quantities);
+
+  /**
+   * 多行写入购物车项的当前数量，用于写回内存中的购物车
+   */
+  @Insert("<script>" +
+      "INSERT INTO cart_items (user_id, product_id, quantity, create_time) VALUES " +
+      "<foreach collection='items' item='item' separator=','>" +
+      "(#{item.userId}, #{item.productId}, #{item.quantity}, #{item.createTime})" +
+      "</foreach> " +
+      "ON DUPLICATE KEY UPDATE quantity = VALUES(quantity)" +
+      "</script>")
+  int replaceLines(@Param("items") List<CartItem> items);
+
+  /**
+   * 按 (user_id, product_id) 批量删除购物车项
+   */
+  @Delete("<script>" +
+      "DELETE FROM cart_items WHERE " +
+      "<foreach collection='items' item='item' separator=' OR '>" +
+      "(user_id = #{item.userId} AND product_id = #{item.productId})" +
+      "</foreach>" +
+      "</script>")
+  int deleteLines(@Param("items") List<CartItem> items);
+
+  /**
+   * 修改购物车项数量
+   */
+  @Update("UPDATE cart_items SET quantity = #{quantity} WHERE user_id = #{userId} AND product_id = #{productId}")
+  int updateQuantity(@Param("userId") Long userId, @Param("productId") Long productId,
+      @Param("quantity") int quantity);
+}
@@ -0,0 +1,95 @@
+package com.example.demo.mapper;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.demo.common.PageCursor;
+import com.example.demo.entity.Favorite;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 收藏列表投影Mapper接口 - favorite_feed表冗余保存收藏内容的标题、作者和浏览量
+ */
+@Mapper
+public interface FavoriteFeedMapper {
+
+  String FEED_COLUMNS = "SELECT favorite_id AS id, user_id, post_id, post_type, title, author, views, " +
+      "post_create_time, create_time FROM favorite_feed ";
+
+  /**
+   * 从收藏记录及其内容生成一行投影，收藏时调用一次
+   */
+  @Insert("INSERT INTO favorite_feed (favorite_id, user_id, post_id, post_type, title, author_id, author, views, " +
+      "post_create_time, create_time) " +
+      "SELECT f.id, f.user_id, f.post_id, f.post_type, " +
+      "CASE WHEN f.post_type = 'forum' THEN fp.title WHEN f.post_type = 'learning' THEN la.title " +
+      "  ELSE '未知标题' END, " +
+      "CASE WHEN f.post_type = 'forum' THEN fp.author_id WHEN f.post_type = 'learning' THEN la.author_id END, " +
+      "CASE WHEN f.post_type = 'forum' THEN u1.nickname WHEN f.post_type = 'learning' THEN u2.nickname " +
+      "  ELSE '未知作者' END, " +
+      "COALESCE(CASE WHEN f.post_type = 'forum' THEN fp.views WHEN f.post_type = 'learning' THEN la.views END, 0), " +
+      "CASE WHEN f.post_type = 'forum' THEN fp.create_time WHEN f.post_type = 'learning' THEN la.create_time " +
+      "  ELSE f.create_time END, " +
+      "f.create_time " +
+      "FROM favorites f " +
+      "LEFT JOIN forum_posts fp ON f.post_type = 'forum' AND f.post_id = fp.id " +
+      "LEFT JOIN learning_activities la ON f.post_type = 'learning' AND f.post_id = la.id " +
+      "LEFT JOIN users u1 ON fp.author_id = u1.id " +
+      "LEFT JOIN users u2 ON la.author_id = u2.id " +
+      "WHERE f.id = #{favoriteId}")
+  int insertFromFavorite(@Param("favoriteId") Long favoriteId);
+
+  /**
+   * 取消收藏时删除投影
+   */
+  @Delete("DELETE FROM favorite_feed WHERE user_id = #{userId} AND post_id = #{postId} AND post_type = #{postType}")
+  int deleteByPost(@Param("userId") Long userId, @Param("postId") Long postId, @Param("postType") String postType);
+
+  /**
+   * 获取用户全部收藏，按收藏时间倒序
+   */
+  @Select(FEED_COLUMNS + "WHERE user_id = #{userId} ORDER BY create_time DESC, favorite_id DESC")
+  List<Favorite> selectByUserId(@Param("userId") Long userId);
+
+  /**
+   * 分页获取用户收藏
+   */
+  @Select(FEED_COLUMNS + "WHERE user_id = #{userId} ORDER BY create_time DESC, favorite_id DESC")
+  Page<Favorite> selectByUserIdPage(Page<Favorite> page, @Param("userId") Long userId);
+
+  /**
+   * 游标分页获取用户收藏，按 (create_time, favorite_id) 倒序取游标之后的记录，不执行COUNT
+   */
+  @Select("<script>" +
+      FEED_COLUMNS + "WHERE user_id = #{userId} " +
+      "<if test='cursor != null'>AND (create_time &lt; #{cursor.createTime} " +
+      "OR (create_time = #{cursor.createTime} AND favorite_id &lt; #{cursor.id}))</if> " +
+      "ORDER BY create_time DESC, favorite_id DESC LIMIT #{limit}" +
+      "</script>")
+  List<Favorite> selectByUserIdAfter(@Param("userId") Long userId, @Param("cursor") PageCursor cursor,
+      @Param("limit") int limit);
+
+  /**
+   * 浏览量写回时同步累加投影中的浏览量
+   */
+  @Update("<script>" +
+      "UPDATE favorite_feed SET views = views + CASE post_id " +
+      "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+      "ELSE 0 END " +
+      "WHERE post_type = #{postType} AND post_id IN " +
+      "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+      "</script>")
+  int increaseViewsBatch(@Param("postType") String postType, @Param("deltas") Map<Long, Long> deltas);
+
+  /**
+   * 作者修改昵称后同步投影中的作者名
+   */
+  @Update("UPDATE favorite_feed SET author = #{nickname} WHERE author_id = #{authorId}")
+  int updateAuthor(@Param("authorId") Long authorId, @Param("nickname") String nickname);
+}
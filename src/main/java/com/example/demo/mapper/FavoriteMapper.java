@@ -6,6 +6,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -14,33 +15,21 @@ import java.util.List;
 @Mapper
 public interface FavoriteMapper extends BaseMapper<Favorite> {
 
-  @Select("SELECT f.*, " +
-      "CASE " +
-      "  WHEN f.post_type = 'forum' THEN fp.title " +
-      "  WHEN f.post_type = 'learning' THEN la.title " +
-      "  ELSE '未知标题' " +
-      "END as title, " +
-      "CASE " +
-      "  WHEN f.post_type = 'forum' THEN u1.nickname " +
-      "  WHEN f.post_type = 'learning' THEN u2.nickname " +
-      "  ELSE '未知作者' " +
-      "END as author, " +
-      "CASE " +
-      "  WHEN f.post_type = 'forum' THEN fp.views " +
-      "  WHEN f.post_type = 'learning' THEN la.views " +
-      "  ELSE 0 " +
-      "END as views, " +
-      "CASE " +
-      "  WHEN f.post_type = 'forum' THEN fp.create_time " +
-      "  WHEN f.post_type = 'learning' THEN la.create_time " +
-      "  ELSE f.create_time " +
-      "END as post_create_time " +
-      "FROM favorites f " +
-      "LEFT JOIN forum_posts fp ON f.post_type = 'forum' AND f.post_id = fp.id " +
-      "LEFT JOIN learning_activities la ON f.post_type = 'learning' AND f.post_id = la.id " +
-      "LEFT JOIN users u1 ON fp.author_id = u1.id " +
-      "LEFT JOIN users u2 ON la.author_id = u2.id " +
-      "WHERE f.user_id = #{userId} " +
-      "ORDER BY f.create_time DESC")
-  List<Favorite> selectUserFavoritesWithDetails(@Param("userId") Long userId);
-}
\ No newline at end of file
+  /**
+   * 获取用户某类收藏的全部内容ID，limit用于限制单个用户加载的数量
+   */
+  @Select("SELECT post_id FROM favorites WHERE user_id = #{userId} AND post_type = #{postType} " +
+      "ORDER BY post_id LIMIT #{limit}")
+  List<Long> selectPostIds(@Param("userId") Long userId, @Param("postType") String postType,
+      @Param("limit") int limit);
+
+  /**
+   * 在给定的内容ID中查找用户已收藏的ID
+   */
+  @Select("<script>" +
+      "SELECT post_id FROM favorites WHERE user_id = #{userId} AND post_type = #{postType} AND post_id IN " +
+      "<foreach collection='postIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+      "</script>")
+  List<Long> selectPostIdsIn(@Param("userId") Long userId, @Param("postType") String postType,
+      @Param("postIds") Collection<Long> postIds);
+}
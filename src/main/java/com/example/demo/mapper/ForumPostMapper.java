@@ -2,10 +2,15 @@ package com.example.demo.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.demo.common.PageCursor;
 import com.example.demo.entity.ForumPost;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * 论坛帖子Mapper接口
@@ -18,4 +23,53 @@ public interface ForumPostMapper extends BaseMapper<ForumPost> {
       "WHERE fp.title LIKE CONCAT('%', #{keyword}, '%') OR fp.content LIKE CONCAT('%', #{keyword}, '%') " +
       "ORDER BY fp.create_time DESC")
   Page<ForumPost> selectForumPostsWithAuthor(Page<ForumPost> page, @Param("keyword") String keyword);
-}
\ No newline at end of file
+
+  /**
+   * 按发布时间倒序分页获取帖子，不带关键词过滤
+   */
+  @Select("SELECT fp.*, u.nickname as author FROM forum_posts fp " +
+      "LEFT JOIN users u ON fp.author_id = u.id " +
+      "ORDER BY fp.create_time DESC")
+  Page<ForumPost> selectLatestForumPostsWithAuthor(Page<ForumPost> page);
+
+  /**
+   * 游标分页获取帖子，按 (create_time, id) 倒序取游标之后的记录，不执行COUNT；
+   * keyword按LIKE过滤，为null时不过滤
+   */
+  @Select("<script>" +
+      "SELECT fp.*, u.nickname as author FROM forum_posts fp " +
+      "LEFT JOIN users u ON fp.author_id = u.id " +
+      "<where>" +
+      "<if test='keyword != null'>AND (fp.title LIKE CONCAT('%', #{keyword}, '%') " +
+      "OR fp.content LIKE CONCAT('%', #{keyword}, '%')) </if>" +
+      "<if test='cursor != null'>AND (fp.create_time &lt; #{cursor.createTime} " +
+      "OR (fp.create_time = #{cursor.createTime} AND fp.id &lt; #{cursor.id}))</if>" +
+      "</where> " +
+      "ORDER BY fp.create_time DESC, fp.id DESC LIMIT #{limit}" +
+      "</script>")
+  List<ForumPost> selectForumPostsWithAuthorAfter(@Param("cursor") PageCursor cursor, @Param("keyword") String keyword,
+      @Param("limit") int limit);
+
+  /**
+   * 按ID批量获取帖子及作者信息，用于全文检索结果回表
+   */
+  @Select("<script>" +
+      "SELECT fp.*, u.nickname as author FROM forum_posts fp " +
+      "LEFT JOIN users u ON fp.author_id = u.id " +
+      "WHERE fp.id IN " +
+      "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+      "</script>")
+  List<ForumPost> selectForumPostsWithAuthorByIds(@Param("ids") List<Long> ids);
+
+  /**
+   * 单条语句批量累加浏览量，key为帖子ID，value为增量
+   */
+  @Update("<script>" +
+      "UPDATE forum_posts SET views = views + CASE id " +
+      "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+      "ELSE 0 END " +
+      "WHERE id IN " +
+      "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+      "</script>")
+  int increaseViewsBatch(@Param("deltas") Map<Long, Long> deltas);
+}
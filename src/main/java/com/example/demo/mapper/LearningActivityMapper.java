@@ -2,10 +2,15 @@ package com.example.demo.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.demo.common.PageCursor;
 import com.example.demo.entity.LearningActivity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * 学习活动Mapper接口
@@ -19,4 +24,67 @@ public interface LearningActivityMapper extends BaseMapper<LearningActivity> {
       "ORDER BY la.create_time DESC")
   Page<LearningActivity> selectLearningActivitiesWithAuthor(Page<LearningActivity> page,
       @Param("keyword") String keyword);
-}
\ No newline at end of file
+
+  /**
+   * 按发布时间倒序分页获取活动，不带关键词过滤
+   */
+  @Select("SELECT la.*, u.nickname as author FROM learning_activities la " +
+      "LEFT JOIN users u ON la.author_id = u.id " +
+      "ORDER BY la.create_time DESC")
+  Page<LearningActivity> selectLatestLearningActivitiesWithAuthor(Page<LearningActivity> page);
+
+  /**
+   * 游标分页获取活动，按 (create_time, id) 倒序取游标之后的记录，不执行COUNT；
+   * keyword按LIKE过滤，为null时不过滤
+   */
+  @Select("<script>" +
+      "SELECT la.*, u.nickname as author FROM learning_activities la " +
+      "LEFT JOIN users u ON la.author_id = u.id " +
+      "<where>" +
+      "<if test='keyword != null'>AND (la.title LIKE CONCAT('%', #{keyword}, '%') " +
+      "OR la.content LIKE CONCAT('%', #{keyword}, '%')) </if>" +
+      "<if test='cursor != null'>AND (la.create_time &lt; #{cursor.createTime} " +
+      "OR (la.create_time = #{cursor.createTime} AND la.id &lt; #{cursor.id}))</if>" +
+      "</where> " +
+      "ORDER BY la.create_time DESC, la.id DESC LIMIT #{limit}" +
+      "</script>")
+  List<LearningActivity> selectLearningActivitiesWithAuthorAfter(@Param("cursor") PageCursor cursor, @Param("keyword") String keyword,
+      @Param("limit") int limit);
+
+  /**
+   * 按ID批量获取活动及作者信息，用于全文检索结果回表
+   */
+  @Select("<script>" +
+      "SELECT la.*, u.nickname as author FROM learning_activities la " +
+      "LEFT JOIN users u ON la.author_id = u.id " +
+      "WHERE la.id IN " +
+      "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+      "</script>")
+  List<LearningActivity> selectLearningActivitiesWithAuthorByIds(@Param("ids") List<Long> ids);
+
+  /**
+   * 单条语句批量累加浏览量，key为活动ID，value为增量
+   */
+  @Update("<script>" +
+      "UPDATE learning_activities SET views = views + CASE id " +
+      "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+      "ELSE 0 END " +
+      "WHERE id IN " +
+      "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+      "</script>")
+  int increaseViewsBatch(@Param("deltas") Map<Long, Long> deltas);
+
+  /**
+   * 条件递增预约数量，活动已关闭或已满员时不更新
+   */
+  @Update("UPDATE learning_activities SET reserved_count = reserved_count + 1 " +
+      "WHERE id = #{id} AND status = 'active' AND reserved_count < max_capacity")
+  int increaseReservedCount(@Param("id") Long id);
+
+  /**
+   * 条件递减预约数量，不会减到0以下
+   */
+  @Update("UPDATE learning_activities SET reserved_count = reserved_count - 1 " +
+      "WHERE id = #{id} AND reserved_count > 0")
+  int decreaseReservedCount(@Param("id") Long id);
+}
@@ -2,6 +2,7 @@ package com.example.demo.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.example.demo.entity.OrderItem;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
@@ -16,4 +17,27 @@ public interface OrderItemMapper extends BaseMapper<OrderItem> {
 
   @Select("SELECT * FROM order_items WHERE order_id = #{orderId}")
   List<OrderItem> selectByOrderId(@Param("orderId") Long orderId);
+
+  /**
+   * 一次查询多个订单的订单项
+   */
+  @Select("<script>" +
+      "SELECT * FROM order_items WHERE order_id IN " +
+      "<foreach collection='orderIds' item='orderId' open='(' separator=',' close=')'>#{orderId}</foreach> " +
+      "ORDER BY order_id, id" +
+      "</script>")
+  List<OrderItem> selectByOrderIds(@Param("orderIds") List<Long> orderIds);
+
+  /**
+   * 多行插入订单项
+   */
+  @Insert("<script>" +
+      "INSERT INTO order_items (order_id, product_id, product_name, product_price, product_image_url, quantity, subtotal) " +
+      "VALUES " +
+      "<foreach collection='items' item='item' separator=','>" +
+      "(#{item.orderId}, #{item.productId}, #{item.productName}, #{item.productPrice}, " +
+      "#{item.productImageUrl}, #{item.quantity}, #{item.subtotal})" +
+      "</foreach>" +
+      "</script>")
+  int insertBatch(@Param("items") List<OrderItem> items);
 }
\ No newline at end of file
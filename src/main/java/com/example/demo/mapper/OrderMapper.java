@@ -2,6 +2,7 @@ package com.example.demo.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.demo.common.PageCursor;
 import com.example.demo.entity.Order;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -20,4 +21,16 @@ public interface OrderMapper extends BaseMapper<Order> {
 
   @Select("SELECT * FROM orders WHERE user_id = #{userId} ORDER BY create_time DESC")
   Page<Order> selectOrdersByUserIdWithPage(Page<Order> page, @Param("userId") Long userId);
-}
\ No newline at end of file
+
+  /**
+   * 游标分页获取用户订单，按 (create_time, id) 倒序取游标之后的记录，不执行COUNT
+   */
+  @Select("<script>" +
+      "SELECT * FROM orders WHERE user_id = #{userId} " +
+      "<if test='cursor != null'>AND (create_time &lt; #{cursor.createTime} " +
+      "OR (create_time = #{cursor.createTime} AND id &lt; #{cursor.id}))</if> " +
+      "ORDER BY create_time DESC, id DESC LIMIT #{limit}" +
+      "</script>")
+  List<Order> selectOrdersByUserIdAfter(@Param("userId") Long userId, @Param("cursor") PageCursor cursor,
+      @Param("limit") int limit);
+}
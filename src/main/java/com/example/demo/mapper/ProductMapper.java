@@ -3,10 +3,29 @@ package com.example.demo.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.example.demo.entity.Product;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Map;
 
 /**
  * 商品Mapper接口
  */
 @Mapper
 public interface ProductMapper extends BaseMapper<Product> {
-}
\ No newline at end of file
+
+  /**
+   * 单条语句按商品调整库存，正数增加、负数扣减，调整后库存为负的商品不会被更新
+   */
+  @Update("<script>" +
+      "UPDATE products SET stock = stock + CASE id " +
+      "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+      "END " +
+      "WHERE id IN " +
+      "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+      "AND stock + CASE id " +
+      "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+      "END &gt;= 0" +
+      "</script>")
+  int adjustStockBatch(@Param("deltas") Map<Long, Integer> deltas);
+}
@@ -6,6 +6,7 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -22,4 +23,13 @@ public interface ReservationMapper extends BaseMapper<Reservation> {
       "LEFT JOIN users u ON la.author_id = u.id " +
       "WHERE r.user_id = #{userId} ORDER BY r.create_time DESC")
   List<Map<String, Object>> selectUserReservationsWithDetails(@Param("userId") Long userId);
-}
\ No newline at end of file
+
+  /**
+   * 在给定的活动ID中查找用户已预约的ID
+   */
+  @Select("<script>" +
+      "SELECT activity_id FROM reservations WHERE user_id = #{userId} AND activity_id IN " +
+      "<foreach collection='activityIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+      "</script>")
+  List<Long> selectActivityIdsIn(@Param("userId") Long userId, @Param("activityIds") Collection<Long> activityIds);
+}
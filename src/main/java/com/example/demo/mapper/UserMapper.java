@@ -1,11 +1,14 @@
 package com.example.demo.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.example.demo.entity.User;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
@@ -15,25 +18,60 @@ import java.util.Map;
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
 
-  /**
-   * 获取用户发布的帖子
-   */
-  @Select("SELECT fp.id, fp.title, fp.content, fp.views, fp.create_time as createTime, " +
+  String USER_POSTS = "SELECT fp.id, fp.title, fp.content, fp.views, fp.create_time as createTime, " +
       "'已发布' as status " +
       "FROM forum_posts fp " +
       "WHERE fp.author_id = #{userId} " +
-      "ORDER BY fp.create_time DESC")
-  List<Map<String, Object>> selectUserPosts(@Param("userId") Long userId);
+      "ORDER BY fp.create_time DESC";
 
-  /**
-   * 获取用户的预约记录
-   */
-  @Select("SELECT la.id, la.title, u.nickname as author, la.create_time as createTime, " +
+  String USER_RESERVATIONS = "SELECT la.id, la.title, u.nickname as author, la.create_time as createTime, " +
       "la.reserved_count as reservedCount, r.create_time as reservationTime " +
       "FROM reservations r " +
       "JOIN learning_activities la ON r.activity_id = la.id " +
       "JOIN users u ON la.author_id = u.id " +
       "WHERE r.user_id = #{userId} " +
-      "ORDER BY r.create_time DESC")
+      "ORDER BY r.create_time DESC";
+
+  /**
+   * 获取用户发布的帖子
+   */
+  @Select(USER_POSTS)
+  List<Map<String, Object>> selectUserPosts(@Param("userId") Long userId);
+
+  /**
+   * 分页获取用户发布的帖子
+   */
+  @Select(USER_POSTS)
+  Page<Map<String, Object>> selectUserPostsPage(Page<Map<String, Object>> page, @Param("userId") Long userId);
+
+  /**
+   * 获取用户的预约记录
+   */
+  @Select(USER_RESERVATIONS)
   List<Map<String, Object>> selectUserReservations(@Param("userId") Long userId);
-}
\ No newline at end of file
+
+  /**
+   * 分页获取用户的预约记录
+   */
+  @Select(USER_RESERVATIONS)
+  Page<Map<String, Object>> selectUserReservationsPage(Page<Map<String, Object>> page,
+      @Param("userId") Long userId);
+
+  /**
+   * 条件扣减余额，余额不足时不更新
+   */
+  @Update("UPDATE users SET balance = balance - #{amount} WHERE id = #{userId} AND balance >= #{amount}")
+  int deductBalance(@Param("userId") Long userId, @Param("amount") BigDecimal amount);
+
+  /**
+   * 增加余额
+   */
+  @Update("UPDATE users SET balance = balance + #{amount} WHERE id = #{userId}")
+  int increaseBalance(@Param("userId") Long userId, @Param("amount") BigDecimal amount);
+
+  /**
+   * 只查询余额列
+   */
+  @Select("SELECT balance FROM users WHERE id = #{userId}")
+  BigDecimal selectBalance(@Param("userId") Long userId);
+}
@@ -0,0 +1,112 @@
+package com.example.demo.metrics;
+
+import com.example.demo.common.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+/**
+ * 业务指标 - 结算、预约、充值、收藏计数，成功在事务提交后计入，失败在事务回滚后计入
+ */
+@Component
+@RequiredArgsConstructor
+public class BusinessMetrics {
+
+  /**
+   * 收藏类型来自请求参数，只保留已知类型作为标签，避免标签数量失控
+   */
+  private static final Set<String> FAVORITE_TYPES = Set.of("forum", "learning");
+
+  /**
+   * 充值方式来自请求体，同样只保留已知方式作为标签
+   */
+  private static final Set<String> PAYMENT_METHODS = Set.of("alipay", "wechat", "bank_card");
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * 记录一次结算的结果及订单金额
+   */
+  public void recordCheckout(BigDecimal amount) {
+    TransactionUtils.afterCommit(() -> {
+      counter("demo.checkouts", "outcome", "success").increment();
+      DistributionSummary.builder("demo.checkout.amount")
+          .description("结算订单金额")
+          .baseUnit("yuan")
+          .register(meterRegistry)
+          .record(amount.doubleValue());
+    });
+  }
+
+  /**
+   * 结算事务回滚时计入失败次数
+   */
+  public void recordCheckoutFailureOnRollback() {
+    TransactionUtils.afterRollback(() -> counter("demo.checkouts", "outcome", "failure").increment());
+  }
+
+  /**
+   * 记录预约结果，被拒绝（满员、重复等）的预约在回滚后计入
+   */
+  public void recordReservation() {
+    TransactionUtils.afterCommit(() -> counter("demo.reservations", "action", "reserve", "outcome", "success")
+        .increment());
+    TransactionUtils.afterRollback(() -> counter("demo.reservations", "action", "reserve", "outcome", "rejected")
+        .increment());
+  }
+
+  /**
+   * 记录取消预约
+   */
+  public void recordReservationCancelled() {
+    TransactionUtils.afterCommit(() -> counter("demo.reservations", "action", "cancel", "outcome", "success")
+        .increment());
+  }
+
+  /**
+   * 记录一次充值及金额
+   */
+  public void recordRecharge(String paymentMethod, BigDecimal amount) {
+    TransactionUtils.afterCommit(() -> {
+      counter("demo.recharges", "payment_method", paymentMethodTag(paymentMethod)).increment();
+      DistributionSummary.builder("demo.recharge.amount")
+          .description("充值金额")
+          .baseUnit("yuan")
+          .register(meterRegistry)
+          .record(amount.doubleValue());
+    });
+  }
+
+  /**
+   * 记录添加收藏
+   */
+  public void recordFavoriteAdded(String postType) {
+    TransactionUtils.afterCommit(() -> counter("demo.favorites", "action", "add", "type", typeTag(postType))
+        .increment());
+  }
+
+  /**
+   * 记录取消收藏
+   */
+  public void recordFavoriteRemoved(String postType) {
+    TransactionUtils.afterCommit(() -> counter("demo.favorites", "action", "remove", "type", typeTag(postType))
+        .increment());
+  }
+
+  private Counter counter(String name, String... tags) {
+    return Counter.builder(name).tags(tags).register(meterRegistry);
+  }
+
+  private static String typeTag(String postType) {
+    return postType != null && FAVORITE_TYPES.contains(postType) ? postType : "other";
+  }
+
+  private static String paymentMethodTag(String paymentMethod) {
+    return paymentMethod != null && PAYMENT_METHODS.contains(paymentMethod) ? paymentMethod : "other";
+  }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * SQL耗时统计插件 - 按Mapper方法记录mybatis.sql计时器，标签为mapper、method、type和exception
+ */
+@Intercepts({
+    @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+    @Signature(type = Executor.class, method = "query",
+        args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+    @Signature(type = Executor.class, method = "query",
+        args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class,
+            BoundSql.class})
+})
+@RequiredArgsConstructor
+public class SqlMetricsInterceptor implements Interceptor {
+
+  public static final String METRIC_NAME = "mybatis.sql";
+
+  private final MeterRegistry meterRegistry;
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String exception = "none";
+    try {
+      return invocation.proceed();
+    } catch (Throwable e) {
+      exception = e.getClass().getSimpleName();
+      throw e;
+    } finally {
+      sample.stop(timer(ms, exception));
+    }
+  }
+
+  private Timer timer(MappedStatement ms, String exception) {
+    // 语句ID形如 com.example.demo.mapper.OrderMapper.selectById，分页插件生成的计数语句带 _mpCount 后缀
+    String id = ms.getId();
+    int methodStart = id.lastIndexOf('.');
+    int mapperStart = id.lastIndexOf('.', methodStart - 1);
+    return Timer.builder(METRIC_NAME)
+        .description("Mapper方法执行耗时")
+        .tag("mapper", id.substring(mapperStart + 1, methodStart))
+        .tag("method", id.substring(methodStart + 1))
+        .tag("type", ms.getSqlCommandType().name())
+        .tag("exception", exception)
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,206 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 进程内倒排索引 - 词项到文档词频的映射，标题中的词项加权；
+ * 词典按词项排序，字母数字关键词按前缀匹配（spr可以匹配spring），完整匹配的权重高于前缀匹配
+ */
+public class InMemorySearchIndex implements SearchIndex {
+
+  private static final int TITLE_WEIGHT = 3;
+
+  /**
+   * 前缀匹配到的较长词项按此比例计分
+   */
+  private static final double PREFIX_WEIGHT = 0.5;
+
+  private final String name;
+
+  /**
+   * 词项 -> (文档ID -> 加权词频)，按词项排序以支持前缀查找
+   */
+  private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+  /**
+   * 文档ID -> 该文档的词项，用于重建和移除
+   */
+  private final Map<Long, Map<String, Integer>> documents = new HashMap<>();
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private volatile boolean ready;
+
+  public InMemorySearchIndex(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public void index(SearchDocument document) {
+    Map<String, Integer> weights = new HashMap<>();
+    for (String token : SearchTokenizer.tokenize(document.title())) {
+      weights.merge(token, TITLE_WEIGHT, Integer::sum);
+    }
+    for (String token : SearchTokenizer.tokenize(document.content())) {
+      weights.merge(token, 1, Integer::sum);
+    }
+
+    lock.writeLock().lock();
+    try {
+      removeLocked(document.id());
+      documents.put(document.id(), weights);
+      weights.forEach((term, weight) -> postings.computeIfAbsent(term, k -> new HashMap<>()).put(document.id(), weight));
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void remove(Long id) {
+    lock.writeLock().lock();
+    try {
+      removeLocked(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public List<Long> search(String keyword) {
+    List<String> terms = SearchTokenizer.queryTerms(keyword);
+    if (terms.isEmpty()) {
+      return List.of();
+    }
+
+    lock.readLock().lock();
+    try {
+      List<Map<Long, Double>> lists = matchAll(terms);
+      if (lists.isEmpty()) {
+        return List.of();
+      }
+
+      int total = documents.size();
+      Map<Long, Double> scores = new HashMap<>();
+      lists.get(0).keySet().forEach(id -> scores.put(id, 0.0));
+      for (Map<Long, Double> list : lists) {
+        double idf = Math.log(1.0 + (double) total / list.size());
+        scores.entrySet().removeIf(entry -> !list.containsKey(entry.getKey()));
+        scores.replaceAll((id, score) -> score + list.get(id) * idf);
+      }
+
+      // 相关度相同时新文档（ID更大）优先
+      List<Long> ids = new ArrayList<>(scores.keySet());
+      ids.sort(Comparator.<Long>comparingDouble(scores::get).reversed()
+          .thenComparing(Comparator.<Long>reverseOrder()));
+      return ids;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<Long> searchBefore(String keyword, Long beforeId, int limit) {
+    List<String> terms = SearchTokenizer.queryTerms(keyword);
+    if (terms.isEmpty()) {
+      return List.of();
+    }
+
+    lock.readLock().lock();
+    try {
+      List<Map<Long, Double>> lists = matchAll(terms);
+      if (lists.isEmpty()) {
+        return List.of();
+      }
+      return lists.get(0).keySet().stream()
+          .filter(id -> beforeId == null || id < beforeId)
+          .filter(id -> lists.stream().allMatch(list -> list.containsKey(id)))
+          .sorted(Comparator.reverseOrder())
+          .limit(limit)
+          .toList();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 查询所有词项的命中列表，按命中文档数从少到多排序，便于从最短的列表开始求交集；
+   * 任一词项没有命中时返回空列表
+   */
+  private List<Map<Long, Double>> matchAll(List<String> terms) {
+    List<Map<Long, Double>> lists = new ArrayList<>(terms.size());
+    for (String term : terms) {
+      Map<Long, Double> list = match(term);
+      if (list.isEmpty()) {
+        return List.of();
+      }
+      lists.add(list);
+    }
+    lists.sort(Comparator.comparingInt(Map::size));
+    return lists;
+  }
+
+  /**
+   * 查询词项命中的文档及得分，字母数字词项同时合并以它为前缀的较长词项
+   */
+  private Map<Long, Double> match(String term) {
+    Map<Long, Double> list = new HashMap<>();
+    Map<Long, Integer> exact = postings.get(term);
+    if (exact != null) {
+      exact.forEach((id, weight) -> list.put(id, (double) weight));
+    }
+    if (SearchTokenizer.isPrefixTerm(term)) {
+      for (Map<Long, Integer> longer : postings.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+        longer.forEach((id, weight) -> list.merge(id, weight * PREFIX_WEIGHT, Double::sum));
+      }
+    }
+    return list;
+  }
+
+  @Override
+  public boolean isReady() {
+    return ready;
+  }
+
+  @Override
+  public void markReady() {
+    ready = true;
+  }
+
+  @Override
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return documents.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void removeLocked(Long id) {
+    Map<String, Integer> previous = documents.remove(id);
+    if (previous == null) {
+      return;
+    }
+    for (String term : previous.keySet()) {
+      Map<Long, Integer> list = postings.get(term);
+      if (list != null) {
+        list.remove(id);
+        if (list.isEmpty()) {
+          postings.remove(term);
+        }
+      }
+    }
+  }
+}
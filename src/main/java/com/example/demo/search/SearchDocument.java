@@ -0,0 +1,7 @@
+package com.example.demo.search;
+
+/**
+ * 待索引的文档
+ */
+public record SearchDocument(Long id, String title, String content) {
+}
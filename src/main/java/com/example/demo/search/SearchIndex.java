@@ -0,0 +1,46 @@
+package com.example.demo.search;
+
+import java.util.List;
+
+/**
+ * 全文检索索引接口
+ */
+public interface SearchIndex {
+
+  /**
+   * 添加或重建单个文档的索引
+   */
+  void index(SearchDocument document);
+
+  /**
+   * 移除文档的索引
+   */
+  void remove(Long id);
+
+  /**
+   * 按相关度从高到低返回匹配的文档ID，所有关键词都须命中；字母数字关键词按单词前缀匹配，
+   * 中文按二元组匹配，与LIKE回退的差别只在单词中间的子串（script不匹配javascript）
+   */
+  List<Long> search(String keyword);
+
+  /**
+   * 按ID倒序返回ID小于beforeId的匹配文档，最多limit个，beforeId为null时从最新的文档开始；
+   * 供游标分页在内存中定位当前页，回表时只需查询这一页的ID
+   */
+  List<Long> searchBefore(String keyword, Long beforeId, int limit);
+
+  /**
+   * 索引是否已完成初始构建，未就绪时调用方应回退到数据库查询
+   */
+  boolean isReady();
+
+  /**
+   * 标记初始构建完成
+   */
+  void markReady();
+
+  /**
+   * 已索引的文档数
+   */
+  int size();
+}
@@ -0,0 +1,55 @@
+package com.example.demo.search;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.BiFunction;
+
+/**
+ * 索引初始构建器 - 应用启动后在后台线程中按ID分批加载全部文档
+ */
+@Component
+@Log4j2
+public class SearchIndexBootstrapper {
+
+  @Value("${search.index.enabled:true}")
+  private boolean enabled;
+
+  @Value("${search.index.batch-size:500}")
+  private int batchSize;
+
+  /**
+   * 异步构建索引，loader接收上一批的最大ID和批大小，返回按ID升序的下一批文档
+   */
+  public void bootstrap(SearchIndex index, String type, BiFunction<Long, Integer, List<SearchDocument>> loader) {
+    if (!enabled) {
+      log.info("全文索引已禁用，{}搜索使用数据库查询", type);
+      return;
+    }
+    Thread thread = new Thread(() -> load(index, type, loader), "search-index-bootstrap");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private void load(SearchIndex index, String type, BiFunction<Long, Integer, List<SearchDocument>> loader) {
+    long start = System.currentTimeMillis();
+    try {
+      long lastId = 0;
+      List<SearchDocument> batch;
+      do {
+        batch = loader.apply(lastId, batchSize);
+        for (SearchDocument document : batch) {
+          index.index(document);
+          lastId = document.id();
+        }
+      } while (batch.size() == batchSize);
+      index.markReady();
+      log.info("{}全文索引构建完成: documents={}, cost={}ms", type, index.size(), System.currentTimeMillis() - start);
+    } catch (Exception e) {
+      // 构建失败时索引保持未就绪，搜索继续使用数据库查询
+      log.error("{}全文索引构建失败，搜索回退到数据库查询: {}", type, e.getMessage(), e);
+    }
+  }
+}
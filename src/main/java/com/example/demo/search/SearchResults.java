@@ -0,0 +1,54 @@
+package com.example.demo.search;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 检索结果分页工具类
+ */
+public final class SearchResults {
+
+  private SearchResults() {
+  }
+
+  /**
+   * 对排好序的ID列表分页，只按ID加载当前页的记录，并保持相关度顺序
+   */
+  public static <T> Page<T> page(List<Long> rankedIds, int page, int size,
+      Function<List<Long>, List<T>> loader, Function<T, Long> idGetter) {
+    Page<T> result = new Page<>(page, size);
+    result.setTotal(rankedIds.size());
+
+    int from = (int) Math.min((long) Math.max(page - 1, 0) * size, rankedIds.size());
+    int to = Math.min(from + size, rankedIds.size());
+    List<Long> pageIds = rankedIds.subList(from, to);
+    if (pageIds.isEmpty()) {
+      return result;
+    }
+
+    result.setRecords(load(pageIds, loader, idGetter));
+    return result;
+  }
+
+  /**
+   * 按ID加载记录，并按ids中的顺序返回
+   */
+  public static <T> List<T> load(List<Long> ids, Function<List<Long>, List<T>> loader, Function<T, Long> idGetter) {
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    Map<Long, Integer> order = new HashMap<>();
+    for (int i = 0; i < ids.size(); i++) {
+      order.put(ids.get(i), i);
+    }
+    List<T> records = loader.apply(ids);
+    records.sort(Comparator.comparingInt(record -> order.get(idGetter.apply(record))));
+    return records;
+  }
+}
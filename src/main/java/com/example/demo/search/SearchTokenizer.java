@@ -0,0 +1,87 @@
+package com.example.demo.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 分词工具类 - 字母数字按单词切分，中日韩文字按单字和二元组切分
+ */
+public final class SearchTokenizer {
+
+  private SearchTokenizer() {
+  }
+
+  /**
+   * 对文档文本分词，保留重复词用于统计词频
+   */
+  public static List<String> tokenize(String text) {
+    List<String> tokens = new ArrayList<>();
+    split(text, true, tokens);
+    return tokens;
+  }
+
+  /**
+   * 对查询关键词分词并去重，中文只取二元组，单字查询取单字
+   */
+  public static List<String> queryTerms(String keyword) {
+    List<String> tokens = new ArrayList<>();
+    split(keyword, false, tokens);
+    return new ArrayList<>(new LinkedHashSet<>(tokens));
+  }
+
+  /**
+   * 字母数字词项在检索时按前缀匹配，中日韩文字已按单字和二元组切分，按词项完整匹配
+   */
+  public static boolean isPrefixTerm(String term) {
+    return !term.isEmpty() && !isCjk(term.codePointAt(0));
+  }
+
+  private static void split(String text, boolean forIndex, List<String> tokens) {
+    if (text == null || text.isEmpty()) {
+      return;
+    }
+    String lower = text.toLowerCase(Locale.ROOT);
+    int i = 0;
+    int length = lower.length();
+    while (i < length) {
+      int codePoint = lower.codePointAt(i);
+      if (isCjk(codePoint)) {
+        int start = i;
+        while (i < length && isCjk(lower.codePointAt(i))) {
+          i += Character.charCount(lower.codePointAt(i));
+        }
+        addCjkTokens(lower.substring(start, i), forIndex, tokens);
+      } else if (Character.isLetterOrDigit(codePoint)) {
+        int start = i;
+        while (i < length && Character.isLetterOrDigit(lower.codePointAt(i)) && !isCjk(lower.codePointAt(i))) {
+          i += Character.charCount(lower.codePointAt(i));
+        }
+        tokens.add(lower.substring(start, i));
+      } else {
+        i += Character.charCount(codePoint);
+      }
+    }
+  }
+
+  private static void addCjkTokens(String run, boolean forIndex, List<String> tokens) {
+    int[] codePoints = run.codePoints().toArray();
+    if (codePoints.length == 1 || forIndex) {
+      for (int codePoint : codePoints) {
+        tokens.add(new String(Character.toChars(codePoint)));
+      }
+    }
+    for (int i = 0; i + 1 < codePoints.length; i++) {
+      tokens.add(new String(codePoints, i, 2));
+    }
+  }
+
+  private static boolean isCjk(int codePoint) {
+    Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+    return script == Character.UnicodeScript.HAN
+        || script == Character.UnicodeScript.HIRAGANA
+        || script == Character.UnicodeScript.KATAKANA
+        || script == Character.UnicodeScript.HANGUL;
+  }
+}
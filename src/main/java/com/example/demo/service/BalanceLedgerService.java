@@ -0,0 +1,154 @@
+package com.example.demo.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.demo.common.CacheStatsUtils;
+import com.example.demo.common.TransactionUtils;
+import com.example.demo.entity.BalanceLedgerEntry;
+import com.example.demo.mapper.BalanceLedgerMapper;
+import com.example.demo.mapper.UserMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 余额流水服务 - 所有余额变动都在同一事务中对users.balance做原子增减并追加一条流水，
+ * users.balance是流水的余额快照，不再读出后在Java中计算再整行写回
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class BalanceLedgerService {
+
+  public static final String RECHARGE = "recharge";
+  public static final String PAYMENT = "payment";
+  public static final String REFUND = "refund";
+
+  private final UserMapper userMapper;
+  private final BalanceLedgerMapper balanceLedgerMapper;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${balance.cache.max-size:10000}")
+  private long balanceCacheMaxSize;
+
+  @Value("${balance.cache.ttl-seconds:30}")
+  private long balanceCacheTtlSeconds;
+
+  /**
+   * 用户ID到余额快照的缓存，只用于余额不足的快速判断和展示，扣款以数据库条件更新为准
+   */
+  private Cache<Long, BigDecimal> balanceCache;
+
+  @PostConstruct
+  public void initBalanceCache() {
+    balanceCache = Caffeine.newBuilder()
+        .maximumSize(balanceCacheMaxSize)
+        .expireAfterWrite(balanceCacheTtlSeconds, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, balanceCache, "balance");
+  }
+
+  /**
+   * 入账：充值、退款
+   */
+  @Transactional
+  public void credit(Long userId, BigDecimal amount, String entryType, String channel, String bizNo,
+      String remark) {
+    requirePositive(amount);
+    if (userMapper.increaseBalance(userId, amount) == 0) {
+      throw new RuntimeException("用户不存在");
+    }
+    append(userId, entryType, amount, channel, bizNo, remark);
+    evictBalance(userId);
+  }
+
+  /**
+   * 出账：余额足够时原子扣减并追加流水，余额不足时返回false且不写流水
+   */
+  @Transactional
+  public boolean debit(Long userId, BigDecimal amount, String entryType, String channel, String bizNo,
+      String remark) {
+    requirePositive(amount);
+    if (userMapper.deductBalance(userId, amount) == 0) {
+      return false;
+    }
+    append(userId, entryType, amount.negate(), channel, bizNo, remark);
+    evictBalance(userId);
+    return true;
+  }
+
+  /**
+   * 获取用户余额，优先读取缓存
+   */
+  public BigDecimal getBalance(Long userId) {
+    BigDecimal balance = balanceCache.get(userId, userMapper::selectBalance);
+    return balance != null ? balance : BigDecimal.ZERO;
+  }
+
+  /**
+   * 余额是否足够支付，用于在扣减库存前快速拒绝余额明显不足的请求
+   */
+  public boolean hasSufficientBalance(Long userId, BigDecimal amount) {
+    return getBalance(userId).compareTo(amount) >= 0;
+  }
+
+  /**
+   * 获取用户充值记录
+   */
+  public List<Map<String, Object>> getRechargeHistory(Long userId) {
+    return balanceLedgerMapper.selectUserRechargeHistory(userId);
+  }
+
+  /**
+   * 分页获取用户充值记录
+   */
+  public Page<Map<String, Object>> getRechargeHistoryWithPage(Long userId, int page, int size) {
+    return balanceLedgerMapper.selectUserRechargeHistoryPage(new Page<>(page, size), userId);
+  }
+
+  /**
+   * 获取余额缓存命中统计
+   */
+  public Map<String, Object> getBalanceCacheStats() {
+    return CacheStatsUtils.toMap(balanceCache);
+  }
+
+  private void append(Long userId, String entryType, BigDecimal amount, String channel, String bizNo,
+      String remark) {
+    BalanceLedgerEntry entry = new BalanceLedgerEntry();
+    entry.setUserId(userId);
+    entry.setEntryType(entryType);
+    entry.setAmount(amount);
+    entry.setChannel(channel);
+    entry.setBizNo(bizNo);
+    entry.setRemark(remark);
+    balanceLedgerMapper.insert(entry);
+    log.debug("追加余额流水: userId={}, type={}, amount={}, bizNo={}", userId, entryType, amount, bizNo);
+  }
+
+  /**
+   * 使余额缓存失效，在当前事务提交后再次失效，避免并发读取把旧余额写回缓存
+   */
+  private void evictBalance(Long userId) {
+    balanceCache.invalidate(userId);
+    TransactionUtils.afterCommit(() -> balanceCache.invalidate(userId));
+  }
+
+  private static void requirePositive(BigDecimal amount) {
+    if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+      throw new RuntimeException("金额必须大于0");
+    }
+  }
+}
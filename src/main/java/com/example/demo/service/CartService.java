@@ -1,41 +1,65 @@
 package com.example.demo.service;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
-import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.demo.cart.CartStore;
 import com.example.demo.entity.CartItem;
 import com.example.demo.entity.Product;
 import com.example.demo.entity.User;
-import com.example.demo.mapper.CartItemMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
- * 购物车服务类
+ * 购物车服务类 - 购物车项的读写由CartStore完成，商品名称、价格和库存从商品缓存补齐
  */
 @Service
 @RequiredArgsConstructor
 @Log4j2
-public class CartService extends ServiceImpl<CartItemMapper, CartItem> {
+public class CartService {
+
+  /**
+   * 批量添加时一次最多包含的商品种数
+   */
+  private static final int MAX_BATCH_ITEMS = 100;
 
   private final UserService userService;
   private final ProductService productService;
+  private final CartStore cartStore;
 
   /**
    * 根据用户名获取购物车
    */
   public List<CartItem> getCartByUsername(String username) {
     log.debug("获取用户购物车: username={}", username);
-    User user = userService.getUserByUsername(username);
-    if (user == null) {
-      throw new RuntimeException("用户不存在");
+    return getCartByUserId(requireUserId(username));
+  }
+
+  /**
+   * 根据用户ID获取购物车
+   */
+  public List<CartItem> getCartByUserId(Long userId) {
+    List<CartItem> items = cartStore.getItems(userId);
+    if (items.isEmpty()) {
+      return items;
     }
 
-    // 获取购物车商品，关联商品信息
-    return baseMapper.selectCartItemsWithProduct(user.getId());
+    // 从商品缓存补齐商品信息，不再与商品表JOIN
+    Map<Long, Product> products = productService.getProductsByIds(
+        items.stream().map(CartItem::getProductId).toList());
+    for (CartItem item : items) {
+      Product product = products.get(item.getProductId());
+      if (product != null) {
+        item.setProductName(product.getName());
+        item.setProductPrice(product.getPrice());
+        item.setProductImageUrl(product.getImageUrl());
+        item.setProductStock(product.getStock());
+      }
+    }
+    return items;
   }
 
   /**
@@ -43,41 +67,46 @@ public class CartService extends ServiceImpl<CartItemMapper, CartItem> {
    */
   @Transactional
   public void addToCart(String username, Long productId, Integer quantity) {
-    log.debug("添加商品到购物车: username={}, productId={}, quantity={}", username, productId, quantity);
+    addToCart(requireUserId(username), productId, quantity);
+  }
 
-    User user = userService.getUserByUsername(username);
-    if (user == null) {
-      throw new RuntimeException("用户不存在");
-    }
+  /**
+   * 添加商品到购物车（通过用户ID）
+   */
+  @Transactional
+  public void addToCart(Long userId, Long productId, Integer quantity) {
+    log.debug("添加商品到购物车: userId={}, productId={}, quantity={}", userId, productId, quantity);
+    addAllToCart(userId, Map.of(productId, quantity));
+  }
 
-    Product product = productService.getById(productId);
-    if (product == null) {
-      throw new RuntimeException("商品不存在");
+  /**
+   * 批量添加商品到购物车：从商品缓存校验所有商品和库存，已有的商品累加数量
+   */
+  @Transactional
+  public void addAllToCart(Long userId, Map<Long, Integer> quantities) {
+    if (quantities.isEmpty()) {
+      throw new RuntimeException("商品列表不能为空");
     }
-
-    if (product.getStock() < quantity) {
-      throw new RuntimeException("库存不足");
+    if (quantities.size() > MAX_BATCH_ITEMS) {
+      throw new RuntimeException("一次最多添加" + MAX_BATCH_ITEMS + "种商品");
     }
 
-    // 检查购物车中是否已有该商品
-    QueryWrapper<CartItem> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("user_id", user.getId()).eq("product_id", productId);
-    CartItem existingItem = getOne(queryWrapper);
-
-    if (existingItem != null) {
-      // 如果已存在，更新数量
-      existingItem.setQuantity(existingItem.getQuantity() + quantity);
-      updateById(existingItem);
-      log.debug("更新购物车商品数量: cartItemId={}, newQuantity={}", existingItem.getId(), existingItem.getQuantity());
-    } else {
-      // 如果不存在，创建新的购物车项
-      CartItem cartItem = new CartItem();
-      cartItem.setUserId(user.getId());
-      cartItem.setProductId(productId);
-      cartItem.setQuantity(quantity);
-      save(cartItem);
-      log.debug("新增购物车商品: userId={}, productId={}, quantity={}", user.getId(), productId, quantity);
-    }
+    Map<Long, Product> products = productService.getProductsByIds(quantities.keySet());
+    quantities.forEach((productId, quantity) -> {
+      if (quantity == null || quantity <= 0) {
+        throw new RuntimeException("数量必须大于0");
+      }
+      Product product = products.get(productId);
+      if (product == null) {
+        throw new RuntimeException("商品不存在：" + productId);
+      }
+      if (product.getStock() < quantity) {
+        throw new RuntimeException("库存不足：" + product.getName());
+      }
+    });
+
+    cartStore.add(userId, quantities);
+    log.debug("批量添加购物车商品: userId={}, count={}", userId, quantities.size());
   }
 
   /**
@@ -85,34 +114,32 @@ public class CartService extends ServiceImpl<CartItemMapper, CartItem> {
    */
   @Transactional
   public void updateCartItem(String username, Long productId, Integer quantity) {
-    log.debug("更新购物车商品数量: username={}, productId={}, quantity={}", username, productId, quantity);
+    updateCartItem(requireUserId(username), productId, quantity);
+  }
 
-    User user = userService.getUserByUsername(username);
-    if (user == null) {
-      throw new RuntimeException("用户不存在");
-    }
+  /**
+   * 更新购物车商品数量（通过用户ID）
+   */
+  @Transactional
+  public void updateCartItem(Long userId, Long productId, Integer quantity) {
+    log.debug("更新购物车商品数量: userId={}, productId={}, quantity={}", userId, productId, quantity);
 
     if (quantity <= 0) {
       throw new RuntimeException("数量必须大于0");
     }
 
-    QueryWrapper<CartItem> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("user_id", user.getId()).eq("product_id", productId);
-    CartItem cartItem = getOne(queryWrapper);
-
-    if (cartItem == null) {
+    if (findItem(userId, productId).isEmpty()) {
       throw new RuntimeException("购物车中没有该商品");
     }
 
     // 检查库存
-    Product product = productService.getById(productId);
+    Product product = productService.getProductDetail(productId);
     if (product != null && product.getStock() < quantity) {
       throw new RuntimeException("库存不足");
     }
 
-    cartItem.setQuantity(quantity);
-    updateById(cartItem);
-    log.debug("购物车商品数量更新成功: cartItemId={}, newQuantity={}", cartItem.getId(), quantity);
+    cartStore.setQuantity(userId, productId, quantity);
+    log.debug("购物车商品数量更新成功: userId={}, productId={}, newQuantity={}", userId, productId, quantity);
   }
 
   /**
@@ -120,23 +147,22 @@ public class CartService extends ServiceImpl<CartItemMapper, CartItem> {
    */
   @Transactional
   public void removeFromCart(String username, Long productId) {
-    log.debug("从购物车移除商品: username={}, productId={}", username, productId);
-
-    User user = userService.getUserByUsername(username);
-    if (user == null) {
-      throw new RuntimeException("用户不存在");
-    }
+    removeFromCart(requireUserId(username), productId);
+  }
 
-    QueryWrapper<CartItem> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("user_id", user.getId()).eq("product_id", productId);
-    CartItem cartItem = getOne(queryWrapper);
+  /**
+   * 从购物车移除商品（通过用户ID）
+   */
+  @Transactional
+  public void removeFromCart(Long userId, Long productId) {
+    log.debug("从购物车移除商品: userId={}, productId={}", userId, productId);
 
-    if (cartItem == null) {
+    if (findItem(userId, productId).isEmpty()) {
       throw new RuntimeException("购物车中没有该商品");
     }
 
-    removeById(cartItem.getId());
-    log.debug("从购物车移除商品成功: cartItemId={}", cartItem.getId());
+    cartStore.remove(userId, productId);
+    log.debug("从购物车移除商品成功: userId={}, productId={}", userId, productId);
   }
 
   /**
@@ -145,15 +171,35 @@ public class CartService extends ServiceImpl<CartItemMapper, CartItem> {
   @Transactional
   public void clearCart(String username) {
     log.debug("清空购物车: username={}", username);
+    clearCart(requireUserId(username));
+  }
+
+  /**
+   * 清空购物车（通过用户ID）
+   */
+  @Transactional
+  public void clearCart(Long userId) {
+    cartStore.clear(userId);
+    log.debug("清空购物车成功: userId={}", userId);
+  }
 
+  /**
+   * 查找购物车中的商品
+   */
+  private Optional<CartItem> findItem(Long userId, Long productId) {
+    return cartStore.getItems(userId).stream()
+        .filter(item -> item.getProductId().equals(productId))
+        .findFirst();
+  }
+
+  /**
+   * 根据用户名获取用户ID
+   */
+  private Long requireUserId(String username) {
     User user = userService.getUserByUsername(username);
     if (user == null) {
       throw new RuntimeException("用户不存在");
     }
-
-    QueryWrapper<CartItem> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("user_id", user.getId());
-    remove(queryWrapper);
-    log.debug("清空购物车成功: userId={}", user.getId());
+    return user.getId();
   }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package com.example.demo.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.example.demo.common.CursorPage;
+import com.example.demo.common.PageCursor;
+import com.example.demo.entity.Favorite;
+import com.example.demo.mapper.FavoriteFeedMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 收藏列表投影服务 - 收藏列表从favorite_feed表按用户索引读取，投影在收藏增删、作者改名和浏览量写回时维护
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class FavoriteFeedService {
+
+  private final FavoriteFeedMapper favoriteFeedMapper;
+
+  /**
+   * 新增收藏后生成投影，需与收藏记录在同一事务中调用
+   */
+  public void onFavoriteAdded(Long favoriteId) {
+    if (favoriteFeedMapper.insertFromFavorite(favoriteId) == 0) {
+      throw new RuntimeException("收藏记录不存在");
+    }
+  }
+
+  /**
+   * 取消收藏后删除投影
+   */
+  public void onFavoriteRemoved(Long userId, Long postId, String postType) {
+    favoriteFeedMapper.deleteByPost(userId, postId, postType);
+  }
+
+  /**
+   * 作者修改昵称后同步投影中的作者名
+   */
+  public void onAuthorRenamed(Long authorId, String nickname) {
+    int rows = favoriteFeedMapper.updateAuthor(authorId, nickname);
+    log.debug("同步收藏投影作者昵称: authorId={}, rows={}", authorId, rows);
+  }
+
+  /**
+   * 获取用户全部收藏
+   */
+  public List<Favorite> getUserFavorites(Long userId) {
+    return favoriteFeedMapper.selectByUserId(userId);
+  }
+
+  /**
+   * 分页获取用户收藏
+   */
+  public Page<Favorite> getUserFavoritesWithPage(Long userId, int page, int size) {
+    return favoriteFeedMapper.selectByUserIdPage(new Page<>(page, size), userId);
+  }
+
+  /**
+   * 游标分页获取用户收藏，翻到任意深度的代价都与第一页相同
+   */
+  public CursorPage<Favorite> getUserFavoritesByCursor(Long userId, String cursor, int size) {
+    int limit = CursorPage.normalizeSize(size);
+    List<Favorite> rows = favoriteFeedMapper.selectByUserIdAfter(userId, PageCursor.decode(cursor), limit + 1);
+    return CursorPage.of(rows, limit, favorite -> PageCursor.of(favorite.getCreateTime(), favorite.getId()));
+  }
+}
@@ -0,0 +1,149 @@
+package com.example.demo.service;
+
+import com.example.demo.common.CacheStatsUtils;
+import com.example.demo.common.TransactionUtils;
+import com.example.demo.mapper.FavoriteMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户收藏ID缓存 - 每个用户每种类型保存一个有序的收藏ID数组，收藏增删提交后同步更新
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class FavoriteIdCache {
+
+  /**
+   * 收藏数超过上限的用户不缓存ID，以这个数组实例作为标记，检查时改用IN查询
+   */
+  private static final long[] TOO_MANY = new long[0];
+
+  private final FavoriteMapper favoriteMapper;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${favorite.cache.max-users:10000}")
+  private long maxUsers;
+
+  @Value("${favorite.cache.max-ids-per-user:5000}")
+  private int maxIdsPerUser;
+
+  @Value("${favorite.cache.ttl-seconds:1800}")
+  private long ttlSeconds;
+
+  private Cache<Key, long[]> cache;
+
+  @PostConstruct
+  public void init() {
+    cache = Caffeine.newBuilder()
+        .maximumSize(maxUsers)
+        .expireAfterAccess(ttlSeconds, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, "favorite.ids");
+  }
+
+  /**
+   * 批量检查给定内容是否已被用户收藏
+   */
+  public Map<Long, Boolean> check(Long userId, String postType, Collection<Long> postIds) {
+    Map<Long, Boolean> result = new LinkedHashMap<>();
+    if (postIds.isEmpty()) {
+      return result;
+    }
+
+    long[] ids = cache.get(new Key(userId, postType), this::load);
+    if (ids == TOO_MANY) {
+      Set<Long> favorites = new HashSet<>(favoriteMapper.selectPostIdsIn(userId, postType, postIds));
+      postIds.forEach(id -> result.put(id, favorites.contains(id)));
+    } else {
+      postIds.forEach(id -> result.put(id, Arrays.binarySearch(ids, id) >= 0));
+    }
+    return result;
+  }
+
+  /**
+   * 检查单个内容是否已被用户收藏
+   */
+  public boolean isFavorite(Long userId, String postType, Long postId) {
+    return check(userId, postType, List.of(postId)).get(postId);
+  }
+
+  /**
+   * 事务提交后把新收藏加入缓存
+   */
+  public void afterAdded(Long userId, String postType, Long postId) {
+    TransactionUtils.afterCommit(() -> cache.asMap().computeIfPresent(new Key(userId, postType),
+        (key, ids) -> ids == TOO_MANY ? ids : insert(ids, postId)));
+  }
+
+  /**
+   * 事务提交后把已移除的收藏从缓存中删除
+   */
+  public void afterRemoved(Long userId, String postType, Long postId) {
+    TransactionUtils.afterCommit(() -> cache.asMap().computeIfPresent(new Key(userId, postType),
+        (key, ids) -> ids == TOO_MANY ? ids : delete(ids, postId)));
+  }
+
+  /**
+   * 获取缓存统计信息
+   */
+  public Map<String, Object> getCacheStats() {
+    return CacheStatsUtils.toMap(cache);
+  }
+
+  private long[] load(Key key) {
+    List<Long> ids = favoriteMapper.selectPostIds(key.userId(), key.postType(), maxIdsPerUser + 1);
+    if (ids.size() > maxIdsPerUser) {
+      log.debug("用户收藏数量超过缓存上限，改用IN查询: userId={}, postType={}", key.userId(), key.postType());
+      return TOO_MANY;
+    }
+    return ids.stream().mapToLong(Long::longValue).toArray();
+  }
+
+  private static long[] insert(long[] ids, long postId) {
+    int index = Arrays.binarySearch(ids, postId);
+    if (index >= 0) {
+      return ids;
+    }
+    int position = -index - 1;
+    long[] updated = new long[ids.length + 1];
+    System.arraycopy(ids, 0, updated, 0, position);
+    updated[position] = postId;
+    System.arraycopy(ids, position, updated, position + 1, ids.length - position);
+    return updated;
+  }
+
+  private static long[] delete(long[] ids, long postId) {
+    int index = Arrays.binarySearch(ids, postId);
+    if (index < 0) {
+      return ids;
+    }
+    long[] updated = new long[ids.length - 1];
+    System.arraycopy(ids, 0, updated, 0, index);
+    System.arraycopy(ids, index + 1, updated, index, ids.length - index - 1);
+    return updated;
+  }
+
+  /**
+   * 缓存的键
+   */
+  private record Key(Long userId, String postType) {
+  }
+}
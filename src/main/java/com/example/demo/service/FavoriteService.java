@@ -1,16 +1,21 @@
 package com.example.demo.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.demo.common.CursorPage;
 import com.example.demo.entity.Favorite;
 import com.example.demo.entity.User;
 import com.example.demo.mapper.FavoriteMapper;
+import com.example.demo.metrics.BusinessMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 收藏服务类
@@ -21,6 +26,9 @@ import java.util.List;
 public class FavoriteService extends ServiceImpl<FavoriteMapper, Favorite> {
 
   private final UserService userService;
+  private final FavoriteIdCache favoriteIdCache;
+  private final FavoriteFeedService favoriteFeedService;
+  private final BusinessMetrics businessMetrics;
 
   /**
    * 获取用户收藏列表（带详细信息）
@@ -30,9 +38,29 @@ public class FavoriteService extends ServiceImpl<FavoriteMapper, Favorite> {
     if (user == null) {
       throw new RuntimeException("用户不存在");
     }
+    return getUserFavorites(user.getId());
+  }
+
+  /**
+   * 获取用户收藏列表（通过用户ID）
+   */
+  public List<Favorite> getUserFavorites(Long userId) {
+    // 从收藏投影表读取，不再JOIN帖子、活动和用户表
+    return favoriteFeedService.getUserFavorites(userId);
+  }
+
+  /**
+   * 分页获取用户收藏列表（通过用户ID）
+   */
+  public Page<Favorite> getUserFavoritesWithPage(Long userId, int page, int size) {
+    return favoriteFeedService.getUserFavoritesWithPage(userId, page, size);
+  }
 
-    // 使用Mapper的自定义方法获取带详细信息的收藏列表
-    return baseMapper.selectUserFavoritesWithDetails(user.getId());
+  /**
+   * 游标分页获取用户收藏列表
+   */
+  public CursorPage<Favorite> getUserFavoritesByCursor(Long userId, String cursor, int size) {
+    return favoriteFeedService.getUserFavoritesByCursor(userId, cursor, size);
   }
 
   /**
@@ -71,6 +99,9 @@ public class FavoriteService extends ServiceImpl<FavoriteMapper, Favorite> {
     favorite.setPostType(postType);
 
     save(favorite);
+    favoriteFeedService.onFavoriteAdded(favorite.getId());
+    favoriteIdCache.afterAdded(userId, postType, postId);
+    businessMetrics.recordFavoriteAdded(postType);
     log.debug("收藏添加成功: favoriteId={}", favorite.getId());
   }
 
@@ -102,6 +133,9 @@ public class FavoriteService extends ServiceImpl<FavoriteMapper, Favorite> {
     if (!removed) {
       throw new RuntimeException("未找到收藏记录");
     }
+    favoriteFeedService.onFavoriteRemoved(userId, postId, postType);
+    favoriteIdCache.afterRemoved(userId, postType, postId);
+    businessMetrics.recordFavoriteRemoved(postType);
 
     log.debug("收藏移除成功: userId={}, postId={}, postType={}", userId, postId, postType);
   }
@@ -114,12 +148,13 @@ public class FavoriteService extends ServiceImpl<FavoriteMapper, Favorite> {
     if (user == null) {
       return false;
     }
+    return favoriteIdCache.isFavorite(user.getId(), postType, postId);
+  }
 
-    QueryWrapper<Favorite> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("user_id", user.getId())
-        .eq("post_id", postId)
-        .eq("post_type", postType);
-
-    return count(queryWrapper) > 0;
+  /**
+   * 批量检查是否已收藏，返回内容ID到是否收藏的映射
+   */
+  public Map<Long, Boolean> areFavorites(Long userId, String postType, Collection<Long> postIds) {
+    return favoriteIdCache.check(userId, postType, postIds);
   }
 }
\ No newline at end of file
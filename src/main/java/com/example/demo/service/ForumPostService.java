@@ -3,16 +3,36 @@ package com.example.demo.service;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.demo.common.CursorPage;
+import com.example.demo.common.LoginUser;
+import com.example.demo.common.PageCursor;
+import com.example.demo.common.TransactionUtils;
 import com.example.demo.entity.Favorite;
 import com.example.demo.entity.ForumPost;
 import com.example.demo.entity.User;
 import com.example.demo.mapper.FavoriteMapper;
 import com.example.demo.mapper.ForumPostMapper;
+import com.example.demo.metrics.BusinessMetrics;
+import com.example.demo.search.SearchDocument;
+import com.example.demo.search.SearchIndex;
+import com.example.demo.search.SearchIndexBootstrapper;
+import com.example.demo.search.SearchResults;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 /**
  * 论坛帖子服务类
  */
@@ -23,14 +43,95 @@ public class ForumPostService extends ServiceImpl<ForumPostMapper, ForumPost> {
 
   private final FavoriteMapper favoriteMapper;
   private final UserService userService;
+  private final ViewCountAggregator viewCountAggregator;
+  private final FavoriteIdCache favoriteIdCache;
+  private final FavoriteFeedService favoriteFeedService;
+  private final BusinessMetrics businessMetrics;
+  private final SearchIndex forumPostSearchIndex;
+  private final SearchIndexBootstrapper searchIndexBootstrapper;
+
+  @Value("${views.known-ids-max-size:10000}")
+  private long knownPostIdsMaxSize;
+
+  @Value("${views.known-ids-ttl-seconds:3600}")
+  private long knownPostIdsTtlSeconds;
+
+  /**
+   * 已确认存在的帖子ID，浏览量只为存在的帖子累加；不存在的ID不缓存，避免之后创建的帖子被误判
+   */
+  private Cache<Long, Boolean> knownPostIds;
+
+  @PostConstruct
+  public void initKnownPostIds() {
+    knownPostIds = Caffeine.newBuilder()
+        .maximumSize(knownPostIdsMaxSize)
+        .expireAfterWrite(knownPostIdsTtlSeconds, TimeUnit.SECONDS)
+        .build();
+  }
+
+  /**
+   * 应用启动后构建帖子全文索引
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void buildSearchIndex() {
+    searchIndexBootstrapper.bootstrap(forumPostSearchIndex, "帖子", (lastId, limit) -> {
+      QueryWrapper<ForumPost> queryWrapper = new QueryWrapper<>();
+      queryWrapper.select("id", "title", "content")
+          .gt("id", lastId)
+          .orderByAsc("id")
+          .last("LIMIT " + limit);
+      return list(queryWrapper).stream()
+          .map(post -> new SearchDocument(post.getId(), post.getTitle(), post.getContent()))
+          .toList();
+    });
+  }
 
   /**
    * 分页获取论坛帖子列表
    */
   public Page<ForumPost> getForumPosts(int page, int size, String search) {
-    Page<ForumPost> pageObj = new Page<>(page, size);
-    String keyword = search == null ? "" : search;
-    return baseMapper.selectForumPostsWithAuthor(pageObj, keyword);
+    return getForumPosts(page, size, search, true);
+  }
+
+  /**
+   * 分页获取论坛帖子列表，searchCount为false时不查询总数
+   */
+  public Page<ForumPost> getForumPosts(int page, int size, String search, boolean searchCount) {
+    Page<ForumPost> pageObj = new Page<>(page, size, searchCount);
+    if (search == null || search.isBlank()) {
+      return baseMapper.selectLatestForumPostsWithAuthor(pageObj);
+    }
+    if (!forumPostSearchIndex.isReady()) {
+      // 索引尚未就绪时回退到LIKE查询
+      return baseMapper.selectForumPostsWithAuthor(pageObj, search);
+    }
+    List<Long> ids = forumPostSearchIndex.search(search);
+    return SearchResults.page(ids, page, size, baseMapper::selectForumPostsWithAuthorByIds, ForumPost::getId);
+  }
+
+  /**
+   * 游标分页获取论坛帖子列表，翻到任意深度的代价都与第一页相同；
+   * 带关键词时在索引中按ID倒序定位当前页，只回表查询这一页的记录，不按相关度排序，游标中只有ID参与比较
+   */
+  public CursorPage<ForumPost> getForumPostsByCursor(String cursor, int size, String search) {
+    int limit = CursorPage.normalizeSize(size);
+    PageCursor position = PageCursor.decode(cursor);
+    List<ForumPost> rows;
+    if (search == null || search.isBlank()) {
+      rows = baseMapper.selectForumPostsWithAuthorAfter(position, null, limit + 1);
+    } else if (!forumPostSearchIndex.isReady()) {
+      // 索引尚未就绪时回退到LIKE查询
+      rows = baseMapper.selectForumPostsWithAuthorAfter(position, search, limit + 1);
+    } else {
+      List<Long> ids = forumPostSearchIndex.searchBefore(search, position != null ? position.getId() : null,
+          limit + 1);
+      rows = SearchResults.load(ids, baseMapper::selectForumPostsWithAuthorByIds, ForumPost::getId);
+    }
+    return CursorPage.of(rows, limit, ForumPostService::cursorOf);
+  }
+
+  private static PageCursor cursorOf(ForumPost post) {
+    return PageCursor.of(post.getCreateTime(), post.getId());
   }
 
   /**
@@ -39,9 +140,10 @@ public class ForumPostService extends ServiceImpl<ForumPostMapper, ForumPost> {
   public ForumPost getPostDetail(Long id) {
     ForumPost post = getById(id);
     if (post != null) {
-      // 增加浏览量
-      post.setViews(post.getViews() + 1);
-      updateById(post);
+      knownPostIds.put(id, Boolean.TRUE);
+      // 浏览量只在内存中累加，由聚合器批量写回，展示时合并未写回的部分
+      viewCountAggregator.incrementPostViews(id);
+      post.setViews(post.getViews() + (int) viewCountAggregator.getPendingPostViews(id));
 
       // 获取作者信息
       Page<ForumPost> pageObj = new Page<>(1, 1);
@@ -77,6 +179,7 @@ public class ForumPostService extends ServiceImpl<ForumPostMapper, ForumPost> {
     post.setViews(0);
 
     save(post);
+    indexAfterCommit(post);
 
     // 设置作者信息用于前端显示
     post.setAuthor(user.getNickname() != null ? user.getNickname() : user.getUsername());
@@ -85,6 +188,22 @@ public class ForumPostService extends ServiceImpl<ForumPostMapper, ForumPost> {
     return post;
   }
 
+  /**
+   * 创建新帖子 - 使用请求中已认证的登录用户，无需再次查询用户
+   */
+  @Transactional
+  public ForumPost createPost(String title, String content, String imageUrl, LoginUser author) {
+    log.info("开始创建帖子: title={}, username={}", title, author.getUsername());
+
+    ForumPost post = createPost(title, content, imageUrl, author.getId());
+
+    // 设置作者信息用于前端显示
+    post.setAuthor(author.getDisplayName());
+
+    log.info("帖子创建成功: postId={}, authorId={}", post.getId(), post.getAuthorId());
+    return post;
+  }
+
   /**
    * 创建新帖子 - 保留原有方法以兼容
    */
@@ -98,6 +217,7 @@ public class ForumPostService extends ServiceImpl<ForumPostMapper, ForumPost> {
     post.setViews(0);
 
     save(post);
+    indexAfterCommit(post);
     return post;
   }
 
@@ -107,12 +227,14 @@ public class ForumPostService extends ServiceImpl<ForumPostMapper, ForumPost> {
   @Transactional
   public void addFavorite(String username, Long postId) {
     log.debug("添加帖子收藏: username={}, postId={}", username, postId);
+    addFavorite(requireUser(username).getId(), postId);
+  }
 
-    User user = userService.getUserByUsername(username);
-    if (user == null) {
-      throw new RuntimeException("用户不存在");
-    }
-
+  /**
+   * 添加帖子收藏（通过用户ID）
+   */
+  @Transactional
+  public void addFavorite(Long userId, Long postId) {
     // 检查帖子是否存在
     ForumPost post = getById(postId);
     if (post == null) {
@@ -121,7 +243,7 @@ public class ForumPostService extends ServiceImpl<ForumPostMapper, ForumPost> {
 
     // 检查是否已收藏
     QueryWrapper<Favorite> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("user_id", user.getId())
+    queryWrapper.eq("user_id", userId)
         .eq("post_id", postId)
         .eq("post_type", "forum");
 
@@ -131,11 +253,14 @@ public class ForumPostService extends ServiceImpl<ForumPostMapper, ForumPost> {
 
     // 创建收藏记录
     Favorite favorite = new Favorite();
-    favorite.setUserId(user.getId());
+    favorite.setUserId(userId);
     favorite.setPostId(postId);
     favorite.setPostType("forum");
 
     favoriteMapper.insert(favorite);
+    favoriteFeedService.onFavoriteAdded(favorite.getId());
+    favoriteIdCache.afterAdded(userId, "forum", postId);
+    businessMetrics.recordFavoriteAdded("forum");
     log.debug("帖子收藏添加成功: favoriteId={}", favorite.getId());
   }
 
@@ -145,14 +270,16 @@ public class ForumPostService extends ServiceImpl<ForumPostMapper, ForumPost> {
   @Transactional
   public void removeFavorite(String username, Long postId) {
     log.debug("移除帖子收藏: username={}, postId={}", username, postId);
+    removeFavorite(requireUser(username).getId(), postId);
+  }
 
-    User user = userService.getUserByUsername(username);
-    if (user == null) {
-      throw new RuntimeException("用户不存在");
-    }
-
+  /**
+   * 移除帖子收藏（通过用户ID）
+   */
+  @Transactional
+  public void removeFavorite(Long userId, Long postId) {
     QueryWrapper<Favorite> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("user_id", user.getId())
+    queryWrapper.eq("user_id", userId)
         .eq("post_id", postId)
         .eq("post_type", "forum");
 
@@ -160,8 +287,11 @@ public class ForumPostService extends ServiceImpl<ForumPostMapper, ForumPost> {
     if (deleted == 0) {
       throw new RuntimeException("未找到收藏记录");
     }
+    favoriteFeedService.onFavoriteRemoved(userId, postId, "forum");
+    favoriteIdCache.afterRemoved(userId, "forum", postId);
+    businessMetrics.recordFavoriteRemoved("forum");
 
-    log.debug("帖子收藏移除成功: userId={}, postId={}", user.getId(), postId);
+    log.debug("帖子收藏移除成功: userId={}, postId={}", userId, postId);
   }
 
   /**
@@ -172,24 +302,51 @@ public class ForumPostService extends ServiceImpl<ForumPostMapper, ForumPost> {
     if (user == null) {
       return false;
     }
+    return isFavorite(user.getId(), postId);
+  }
 
-    QueryWrapper<Favorite> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("user_id", user.getId())
-        .eq("post_id", postId)
-        .eq("post_type", "forum");
+  /**
+   * 检查帖子是否已收藏（通过用户ID）
+   */
+  public boolean isFavorite(Long userId, Long postId) {
+    return favoriteIdCache.isFavorite(userId, "forum", postId);
+  }
 
-    return favoriteMapper.selectCount(queryWrapper) > 0;
+  /**
+   * 批量检查帖子是否已收藏，返回帖子ID到是否收藏的映射
+   */
+  public Map<Long, Boolean> areFavorites(Long userId, Collection<Long> postIds) {
+    return favoriteIdCache.check(userId, "forum", postIds);
   }
 
   /**
    * 更新浏览量
    */
   public void updateViews(Long postId) {
-    ForumPost post = getById(postId);
-    if (post != null) {
-      post.setViews(post.getViews() + 1);
-      updateById(post);
-      log.debug("帖子浏览量更新: postId={}, newViews={}", postId, post.getViews());
+    if (knownPostIds.get(postId, id -> baseMapper.selectById(id) != null ? Boolean.TRUE : null) == null) {
+      log.debug("帖子不存在，忽略浏览: postId={}", postId);
+      return;
     }
+    viewCountAggregator.incrementPostViews(postId);
+    log.debug("帖子浏览量累加: postId={}, pendingViews={}", postId, viewCountAggregator.getPendingPostViews(postId));
+  }
+
+  /**
+   * 根据用户名获取用户
+   */
+  private User requireUser(String username) {
+    User user = userService.getUserByUsername(username);
+    if (user == null) {
+      throw new RuntimeException("用户不存在");
+    }
+    return user;
+  }
+
+  /**
+   * 事务提交后把帖子加入全文索引
+   */
+  private void indexAfterCommit(ForumPost post) {
+    SearchDocument document = new SearchDocument(post.getId(), post.getTitle(), post.getContent());
+    TransactionUtils.afterCommit(() -> forumPostSearchIndex.index(document));
   }
-}
\ No newline at end of file
+}
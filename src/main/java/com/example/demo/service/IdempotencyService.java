@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 幂等请求服务 - 按 (业务, 用户, 幂等键) 记录处理中或已完成的结果，
+ * 并发的重复请求等待第一次的结果，之后的重复请求直接返回缓存结果，不再访问数据库
+ */
+@Service
+@Log4j2
+public class IdempotencyService {
+
+  private static final int MAX_KEY_LENGTH = 64;
+
+  @Value("${idempotency.max-entries:100000}")
+  private long maxEntries;
+
+  @Value("${idempotency.ttl-seconds:600}")
+  private long ttlSeconds;
+
+  @Value("${idempotency.wait-timeout-ms:10000}")
+  private long waitTimeoutMillis;
+
+  private Cache<Key, CompletableFuture<Object>> results;
+
+  @PostConstruct
+  public void init() {
+    // 处理中的记录权重为0，不会因容量淘汰而让重复请求再次执行；完成后重新写入，按权重1计入容量
+    results = Caffeine.newBuilder()
+        .maximumWeight(maxEntries)
+        .<Key, CompletableFuture<Object>>weigher((key, future) -> future.isDone() ? 1 : 0)
+        .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+        .build();
+  }
+
+  /**
+   * 以幂等方式执行操作，失败的请求不保留记录，客户端可以用同一个键重试
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T execute(String scope, Long userId, String idempotencyKey, Supplier<T> action) {
+    if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+      throw new RuntimeException("Idempotency-Key不能为空且长度不能超过" + MAX_KEY_LENGTH);
+    }
+
+    Key key = new Key(scope, userId, idempotencyKey);
+    CompletableFuture<Object> created = new CompletableFuture<>();
+    CompletableFuture<Object> existing = results.asMap().putIfAbsent(key, created);
+    if (existing != null) {
+      log.debug("重复请求，返回首次处理结果: scope={}, userId={}, key={}", scope, userId, idempotencyKey);
+      return (T) await(existing);
+    }
+
+    try {
+      T result = action.get();
+      created.complete(result);
+      results.asMap().replace(key, created, created);
+      return result;
+    } catch (Throwable e) {
+      // Error等非RuntimeException同样移除记录，否则该键在过期前一直显示为处理中
+      results.asMap().remove(key, created);
+      created.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private Object await(CompletableFuture<Object> future) {
+    try {
+      return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      // 等待中的重复请求得到与首次请求相同的错误
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+    } catch (TimeoutException e) {
+      throw new RuntimeException("请求正在处理中，请稍后重试");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("请求被中断");
+    }
+  }
+
+  /**
+   * 幂等记录的键
+   */
+  private record Key(String scope, Long userId, String idempotencyKey) {
+  }
+}
@@ -3,6 +3,9 @@ package com.example.demo.service;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.demo.common.CursorPage;
+import com.example.demo.common.PageCursor;
+import com.example.demo.common.TransactionUtils;
 import com.example.demo.entity.Favorite;
 import com.example.demo.entity.LearningActivity;
 import com.example.demo.entity.Reservation;
@@ -10,13 +13,25 @@ import com.example.demo.entity.User;
 import com.example.demo.mapper.FavoriteMapper;
 import com.example.demo.mapper.LearningActivityMapper;
 import com.example.demo.mapper.ReservationMapper;
+import com.example.demo.metrics.BusinessMetrics;
+import com.example.demo.search.SearchDocument;
+import com.example.demo.search.SearchIndex;
+import com.example.demo.search.SearchIndexBootstrapper;
+import com.example.demo.search.SearchResults;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 学习活动服务类
@@ -29,14 +44,78 @@ public class LearningActivityService extends ServiceImpl<LearningActivityMapper,
   private final ReservationMapper reservationMapper;
   private final FavoriteMapper favoriteMapper;
   private final UserService userService;
+  private final ViewCountAggregator viewCountAggregator;
+  private final FavoriteIdCache favoriteIdCache;
+  private final FavoriteFeedService favoriteFeedService;
+  private final BusinessMetrics businessMetrics;
+  private final SeatAllocator seatAllocator;
+  private final SearchIndex learningActivitySearchIndex;
+  private final SearchIndexBootstrapper searchIndexBootstrapper;
+
+  /**
+   * 应用启动后构建活动全文索引
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void buildSearchIndex() {
+    searchIndexBootstrapper.bootstrap(learningActivitySearchIndex, "活动", (lastId, limit) -> {
+      QueryWrapper<LearningActivity> queryWrapper = new QueryWrapper<>();
+      queryWrapper.select("id", "title", "content")
+          .gt("id", lastId)
+          .orderByAsc("id")
+          .last("LIMIT " + limit);
+      return list(queryWrapper).stream()
+          .map(activity -> new SearchDocument(activity.getId(), activity.getTitle(), activity.getContent()))
+          .toList();
+    });
+  }
 
   /**
    * 分页获取学习活动列表
    */
   public Page<LearningActivity> getLearningActivities(int page, int size, String search) {
-    Page<LearningActivity> pageObj = new Page<>(page, size);
-    String keyword = search == null ? "" : search;
-    return baseMapper.selectLearningActivitiesWithAuthor(pageObj, keyword);
+    return getLearningActivities(page, size, search, true);
+  }
+
+  /**
+   * 分页获取学习活动列表，searchCount为false时不查询总数
+   */
+  public Page<LearningActivity> getLearningActivities(int page, int size, String search, boolean searchCount) {
+    Page<LearningActivity> pageObj = new Page<>(page, size, searchCount);
+    if (search == null || search.isBlank()) {
+      return baseMapper.selectLatestLearningActivitiesWithAuthor(pageObj);
+    }
+    if (!learningActivitySearchIndex.isReady()) {
+      // 索引尚未就绪时回退到LIKE查询
+      return baseMapper.selectLearningActivitiesWithAuthor(pageObj, search);
+    }
+    List<Long> ids = learningActivitySearchIndex.search(search);
+    return SearchResults.page(ids, page, size,
+        baseMapper::selectLearningActivitiesWithAuthorByIds, LearningActivity::getId);
+  }
+
+  /**
+   * 游标分页获取学习活动列表，翻到任意深度的代价都与第一页相同；
+   * 带关键词时在索引中按ID倒序定位当前页，只回表查询这一页的记录，不按相关度排序，游标中只有ID参与比较
+   */
+  public CursorPage<LearningActivity> getLearningActivitiesByCursor(String cursor, int size, String search) {
+    int limit = CursorPage.normalizeSize(size);
+    PageCursor position = PageCursor.decode(cursor);
+    List<LearningActivity> rows;
+    if (search == null || search.isBlank()) {
+      rows = baseMapper.selectLearningActivitiesWithAuthorAfter(position, null, limit + 1);
+    } else if (!learningActivitySearchIndex.isReady()) {
+      // 索引尚未就绪时回退到LIKE查询
+      rows = baseMapper.selectLearningActivitiesWithAuthorAfter(position, search, limit + 1);
+    } else {
+      List<Long> ids = learningActivitySearchIndex.searchBefore(search, position != null ? position.getId() : null,
+          limit + 1);
+      rows = SearchResults.load(ids, baseMapper::selectLearningActivitiesWithAuthorByIds, LearningActivity::getId);
+    }
+    return CursorPage.of(rows, limit, LearningActivityService::cursorOf);
+  }
+
+  private static PageCursor cursorOf(LearningActivity activity) {
+    return PageCursor.of(activity.getCreateTime(), activity.getId());
   }
 
   /**
@@ -45,47 +124,39 @@ public class LearningActivityService extends ServiceImpl<LearningActivityMapper,
   public LearningActivity getActivityDetail(Long id) {
     LearningActivity activity = getById(id);
     if (activity != null) {
-      // 增加浏览量
-      activity.setViews(activity.getViews() + 1);
-      updateById(activity);
+      // 浏览量只在内存中累加，由聚合器批量写回，展示时合并未写回的部分
+      viewCountAggregator.incrementActivityViews(id);
+      activity.setViews(activity.getViews() + (int) viewCountAggregator.getPendingActivityViews(id));
     }
     return activity;
   }
 
   /**
-   * 预约活动
+   * 预约活动 - 先在内存中原子占用名额，再以条件更新和唯一键约束落库
    */
   @Transactional
   public void reserveActivity(Long userId, Long activityId) {
-    LearningActivity activity = getById(activityId);
-    if (activity == null) {
-      throw new RuntimeException("活动不存在");
-    }
+    businessMetrics.recordReservation();
 
-    if (!"active".equals(activity.getStatus())) {
-      throw new RuntimeException("活动已关闭");
-    }
-
-    if (activity.getReservedCount() >= activity.getMaxCapacity()) {
-      throw new RuntimeException("活动已满员");
-    }
+    // 满员或已关闭的活动在这里直接拒绝，不访问数据库
+    SeatAllocator.Seats seats = seatAllocator.acquire(activityId);
+    TransactionUtils.afterRollback(seats::release);
 
-    // 检查是否已预约
-    QueryWrapper<Reservation> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("user_id", userId).eq("activity_id", activityId);
-    if (reservationMapper.selectCount(queryWrapper) > 0) {
-      throw new RuntimeException("您已预约过此活动");
-    }
-
-    // 创建预约记录
+    // 依赖 unique_reservation 唯一键判断重复预约，不再预先查询
     Reservation reservation = new Reservation();
     reservation.setUserId(userId);
     reservation.setActivityId(activityId);
-    reservationMapper.insert(reservation);
+    try {
+      reservationMapper.insert(reservation);
+    } catch (DuplicateKeyException e) {
+      throw new RuntimeException("您已预约过此活动");
+    }
 
-    // 更新预约数量
-    activity.setReservedCount(activity.getReservedCount() + 1);
-    updateById(activity);
+    // 数据库中的条件更新是最终的容量保证，内存名额与数据库不一致时重新加载
+    if (baseMapper.increaseReservedCount(activityId) == 0) {
+      seatAllocator.invalidate(activityId);
+      throw new RuntimeException("活动已满员");
+    }
   }
 
   /**
@@ -95,21 +166,15 @@ public class LearningActivityService extends ServiceImpl<LearningActivityMapper,
   public void cancelReservation(Long userId, Long activityId) {
     QueryWrapper<Reservation> queryWrapper = new QueryWrapper<>();
     queryWrapper.eq("user_id", userId).eq("activity_id", activityId);
-    Reservation reservation = reservationMapper.selectOne(queryWrapper);
 
-    if (reservation == null) {
+    if (reservationMapper.delete(queryWrapper) == 0) {
       throw new RuntimeException("您未预约此活动");
     }
 
-    // 删除预约记录
-    reservationMapper.deleteById(reservation.getId());
-
-    // 更新预约数量
-    LearningActivity activity = getById(activityId);
-    if (activity != null) {
-      activity.setReservedCount(Math.max(0, activity.getReservedCount() - 1));
-      updateById(activity);
-    }
+    // 更新预约数量，提交后归还内存名额
+    baseMapper.decreaseReservedCount(activityId);
+    TransactionUtils.afterCommit(() -> seatAllocator.release(activityId));
+    businessMetrics.recordReservationCancelled();
   }
 
   /**
@@ -118,12 +183,14 @@ public class LearningActivityService extends ServiceImpl<LearningActivityMapper,
   @Transactional
   public void addFavorite(String username, Long activityId) {
     log.debug("添加活动收藏: username={}, activityId={}", username, activityId);
+    addFavorite(requireUser(username).getId(), activityId);
+  }
 
-    User user = userService.getUserByUsername(username);
-    if (user == null) {
-      throw new RuntimeException("用户不存在");
-    }
-
+  /**
+   * 添加活动收藏（通过用户ID）
+   */
+  @Transactional
+  public void addFavorite(Long userId, Long activityId) {
     // 检查活动是否存在
     LearningActivity activity = getById(activityId);
     if (activity == null) {
@@ -132,7 +199,7 @@ public class LearningActivityService extends ServiceImpl<LearningActivityMapper,
 
     // 检查是否已收藏
     QueryWrapper<Favorite> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("user_id", user.getId())
+    queryWrapper.eq("user_id", userId)
         .eq("post_id", activityId)
         .eq("post_type", "learning");
 
@@ -142,11 +209,14 @@ public class LearningActivityService extends ServiceImpl<LearningActivityMapper,
 
     // 创建收藏记录
     Favorite favorite = new Favorite();
-    favorite.setUserId(user.getId());
+    favorite.setUserId(userId);
     favorite.setPostId(activityId);
     favorite.setPostType("learning");
 
     favoriteMapper.insert(favorite);
+    favoriteFeedService.onFavoriteAdded(favorite.getId());
+    favoriteIdCache.afterAdded(userId, "learning", activityId);
+    businessMetrics.recordFavoriteAdded("learning");
     log.debug("活动收藏添加成功: favoriteId={}", favorite.getId());
   }
 
@@ -156,14 +226,16 @@ public class LearningActivityService extends ServiceImpl<LearningActivityMapper,
   @Transactional
   public void removeFavorite(String username, Long activityId) {
     log.debug("移除活动收藏: username={}, activityId={}", username, activityId);
+    removeFavorite(requireUser(username).getId(), activityId);
+  }
 
-    User user = userService.getUserByUsername(username);
-    if (user == null) {
-      throw new RuntimeException("用户不存在");
-    }
-
+  /**
+   * 移除活动收藏（通过用户ID）
+   */
+  @Transactional
+  public void removeFavorite(Long userId, Long activityId) {
     QueryWrapper<Favorite> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("user_id", user.getId())
+    queryWrapper.eq("user_id", userId)
         .eq("post_id", activityId)
         .eq("post_type", "learning");
 
@@ -171,8 +243,11 @@ public class LearningActivityService extends ServiceImpl<LearningActivityMapper,
     if (deleted == 0) {
       throw new RuntimeException("未找到收藏记录");
     }
+    favoriteFeedService.onFavoriteRemoved(userId, activityId, "learning");
+    favoriteIdCache.afterRemoved(userId, "learning", activityId);
+    businessMetrics.recordFavoriteRemoved("learning");
 
-    log.debug("活动收藏移除成功: userId={}, activityId={}", user.getId(), activityId);
+    log.debug("活动收藏移除成功: userId={}, activityId={}", userId, activityId);
   }
 
   /**
@@ -183,13 +258,21 @@ public class LearningActivityService extends ServiceImpl<LearningActivityMapper,
     if (user == null) {
       return false;
     }
+    return isFavorite(user.getId(), activityId);
+  }
 
-    QueryWrapper<Favorite> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("user_id", user.getId())
-        .eq("post_id", activityId)
-        .eq("post_type", "learning");
+  /**
+   * 检查活动是否已收藏（通过用户ID）
+   */
+  public boolean isFavorite(Long userId, Long activityId) {
+    return favoriteIdCache.isFavorite(userId, "learning", activityId);
+  }
 
-    return favoriteMapper.selectCount(queryWrapper) > 0;
+  /**
+   * 批量检查活动是否已收藏，返回活动ID到是否收藏的映射
+   */
+  public Map<Long, Boolean> areFavorites(Long userId, Collection<Long> activityIds) {
+    return favoriteIdCache.check(userId, "learning", activityIds);
   }
 
   /**
@@ -224,22 +307,54 @@ public class LearningActivityService extends ServiceImpl<LearningActivityMapper,
     if (user == null) {
       return false;
     }
+    return isReserved(user.getId(), activityId);
+  }
 
+  /**
+   * 检查是否已预约（通过用户ID）
+   */
+  public boolean isReserved(Long userId, Long activityId) {
     QueryWrapper<Reservation> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("user_id", user.getId()).eq("activity_id", activityId);
+    queryWrapper.eq("user_id", userId).eq("activity_id", activityId);
 
     return reservationMapper.selectCount(queryWrapper) > 0;
   }
 
+  /**
+   * 批量检查是否已预约，一次IN查询返回活动ID到是否预约的映射
+   */
+  public Map<Long, Boolean> areReserved(Long userId, Collection<Long> activityIds) {
+    Map<Long, Boolean> result = new LinkedHashMap<>();
+    if (activityIds.isEmpty()) {
+      return result;
+    }
+    Set<Long> reserved = new HashSet<>(reservationMapper.selectActivityIdsIn(userId, activityIds));
+    activityIds.forEach(id -> result.put(id, reserved.contains(id)));
+    return result;
+  }
+
   /**
    * 获取用户的预约记录
    */
   public List<Map<String, Object>> getUserReservations(String username) {
+    return getUserReservations(requireUser(username).getId());
+  }
+
+  /**
+   * 获取用户的预约记录（通过用户ID）
+   */
+  public List<Map<String, Object>> getUserReservations(Long userId) {
+    return reservationMapper.selectUserReservationsWithDetails(userId);
+  }
+
+  /**
+   * 根据用户名获取用户
+   */
+  private User requireUser(String username) {
     User user = userService.getUserByUsername(username);
     if (user == null) {
       throw new RuntimeException("用户不存在");
     }
-
-    return reservationMapper.selectUserReservationsWithDetails(user.getId());
+    return user;
   }
 }
\ No newline at end of file
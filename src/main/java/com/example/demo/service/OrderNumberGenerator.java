@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 订单号生成器 - 格式为 ORD + 毫秒时间戳(yyyyMMddHHmmssSSS) + 4位节点号 + 4位毫秒内序号，共28位
+ * 时间戳与序号保存在同一个AtomicLong中通过CAS推进，同一节点生成的订单号严格递增，不会重复
+ */
+@Component
+@Log4j2
+public class OrderNumberGenerator {
+
+  private static final String PREFIX = "ORD";
+  private static final int SEQUENCE_LIMIT = 10_000;
+  private static final int NODE_LIMIT = 10_000;
+  private static final int LENGTH = PREFIX.length() + 17 + 4 + 4;
+  private static final DateTimeFormatter SECOND_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+  private final int nodeId;
+  private final LongSupplier clock;
+  private final ZoneId zone = ZoneId.systemDefault();
+
+  /**
+   * 最近一次分配的 毫秒时间戳 * 10000 + 序号
+   */
+  private final AtomicLong lastTick = new AtomicLong();
+
+  /**
+   * 最近使用的秒级前缀，同一秒内的订单号复用，避免每次格式化日期
+   */
+  private volatile SecondPrefix secondPrefix = new SecondPrefix(Long.MIN_VALUE, null);
+
+  @Autowired
+  public OrderNumberGenerator(@Value("${order.number.node-id:-1}") int nodeId) {
+    this(nodeId, System::currentTimeMillis);
+  }
+
+  OrderNumberGenerator(int nodeId, LongSupplier clock) {
+    if (nodeId >= NODE_LIMIT) {
+      throw new IllegalArgumentException("订单号节点号必须在0-" + (NODE_LIMIT - 1) + "之间: " + nodeId);
+    }
+    this.nodeId = nodeId < 0 ? deriveNodeId() : nodeId;
+    this.clock = clock;
+    log.info("订单号生成器节点号: {}", this.nodeId);
+  }
+
+  /**
+   * 生成订单号
+   */
+  public String next() {
+    long tick = nextTick();
+    long millis = tick / SEQUENCE_LIMIT;
+    int sequence = (int) (tick % SEQUENCE_LIMIT);
+
+    char[] chars = new char[LENGTH];
+    int pos = secondPrefix(millis / 1000).copyTo(chars);
+    pos = writeDigits(chars, pos, millis % 1000, 3);
+    pos = writeDigits(chars, pos, nodeId, 4);
+    writeDigits(chars, pos, sequence, 4);
+    return new String(chars);
+  }
+
+  public int getNodeId() {
+    return nodeId;
+  }
+
+  /**
+   * 推进时间戳与序号：新的毫秒从序号0开始；同一毫秒内序号加一，序号用尽时借用下一毫秒；
+   * 时钟回拨时继续沿用上次的时间戳递增，等系统时间追上后再恢复
+   */
+  private long nextTick() {
+    long now = clock.getAsLong() * SEQUENCE_LIMIT;
+    while (true) {
+      long last = lastTick.get();
+      long next = Math.max(now, last + 1);
+      if (lastTick.compareAndSet(last, next)) {
+        return next;
+      }
+    }
+  }
+
+  private SecondPrefix secondPrefix(long epochSecond) {
+    SecondPrefix current = secondPrefix;
+    if (current.epochSecond == epochSecond) {
+      return current;
+    }
+    String formatted = PREFIX + LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone)
+        .format(SECOND_FORMATTER);
+    SecondPrefix created = new SecondPrefix(epochSecond, formatted.toCharArray());
+    secondPrefix = created;
+    return created;
+  }
+
+  private static int writeDigits(char[] chars, int pos, long value, int width) {
+    for (int i = pos + width - 1; i >= pos; i--) {
+      chars[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+    return pos + width;
+  }
+
+  /**
+   * 未配置节点号时按主机名与进程号推算，多实例部署应通过order.number.node-id显式指定
+   */
+  private static int deriveNodeId() {
+    String host;
+    try {
+      host = InetAddress.getLocalHost().getHostName();
+    } catch (UnknownHostException e) {
+      host = "unknown";
+    }
+    return Math.floorMod(31 * host.hashCode() + Long.hashCode(ProcessHandle.current().pid()), NODE_LIMIT);
+  }
+
+  /**
+   * 秒级前缀 ORDyyyyMMddHHmmss
+   */
+  private record SecondPrefix(long epochSecond, char[] chars) {
+
+    int copyTo(char[] target) {
+      System.arraycopy(chars, 0, target, 0, chars.length);
+      return chars.length;
+    }
+  }
+}
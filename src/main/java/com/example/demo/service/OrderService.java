@@ -3,19 +3,26 @@ package com.example.demo.service;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.demo.common.CursorPage;
+import com.example.demo.common.PageCursor;
+import com.example.demo.common.TransactionUtils;
 import com.example.demo.entity.*;
+import com.example.demo.flashsale.FlashSaleService;
 import com.example.demo.mapper.OrderItemMapper;
 import com.example.demo.mapper.OrderMapper;
+import com.example.demo.metrics.BusinessMetrics;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 订单服务类
@@ -25,17 +32,29 @@ import java.util.Map;
 @Log4j2
 public class OrderService extends ServiceImpl<OrderMapper, Order> {
 
+  /**
+   * 不分页的订单列表按此大小分批查询订单项，避免IN列表过长
+   */
+  private static final int ITEM_QUERY_BATCH_SIZE = 500;
+
   private final OrderItemMapper orderItemMapper;
   private final UserService userService;
   private final CartService cartService;
   private final ProductService productService;
+  private final BalanceLedgerService balanceLedgerService;
+  private final BusinessMetrics businessMetrics;
+  private final OrderNumberGenerator orderNumberGenerator;
+  private final FlashSaleService flashSaleService;
 
   /**
    * 从购物车结算创建订单
+   * 每次结算的数据库往返次数固定，与购物车商品数量无关：
+   * 一次批量查询商品、一次条件扣减库存、一次条件扣减余额、一次订单插入、一次订单项多行插入、一次清空购物车
    */
   @Transactional
   public Order checkoutFromCart(String username, Map<String, String> orderInfo) {
     log.info("开始购物车结算: username={}", username);
+    businessMetrics.recordCheckoutFailureOnRollback();
 
     // 获取用户信息
     User user = userService.getUserByUsername(username);
@@ -44,30 +63,24 @@ public class OrderService extends ServiceImpl<OrderMapper, Order> {
     }
 
     // 获取购物车商品
-    List<CartItem> cartItems = cartService.getCartByUsername(username);
+    List<CartItem> cartItems = cartService.getCartByUserId(user.getId());
     if (cartItems.isEmpty()) {
       throw new RuntimeException("购物车为空");
     }
 
-    // 计算订单总金额
-    BigDecimal totalAmount = BigDecimal.ZERO;
+    // 秒杀商品的库存只由秒杀写线程扣减
     for (CartItem item : cartItems) {
-      if (item.getProductPrice() != null && item.getQuantity() != null) {
-        BigDecimal itemTotal = item.getProductPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-        totalAmount = totalAmount.add(itemTotal);
+      if (flashSaleService.isOnSale(item.getProductId())) {
+        throw new RuntimeException("商品正在秒杀，请通过秒杀下单：" + item.getProductName());
       }
     }
 
-    // 检查用户余额
-    if (user.getBalance() == null || user.getBalance().compareTo(totalAmount) < 0) {
-      throw new RuntimeException("余额不足，当前余额：" +
-          (user.getBalance() != null ? user.getBalance() : BigDecimal.ZERO) +
-          "，需要支付：" + totalAmount);
-    }
-
-    // 检查商品库存
+    // 一次批量查询所有商品，检查商品与库存
+    List<Long> productIds = cartItems.stream().map(CartItem::getProductId).collect(Collectors.toList());
+    Map<Long, Product> products = productService.listByIds(productIds).stream()
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
     for (CartItem item : cartItems) {
-      Product product = productService.getById(item.getProductId());
+      Product product = products.get(item.getProductId());
       if (product == null) {
         throw new RuntimeException("商品不存在：" + item.getProductName());
       }
@@ -75,10 +88,39 @@ public class OrderService extends ServiceImpl<OrderMapper, Order> {
         throw new RuntimeException("商品库存不足：" + product.getName() +
             "，当前库存：" + product.getStock() + "，需要：" + item.getQuantity());
       }
+      // 以最新商品信息为准
+      item.setProductName(product.getName());
+      item.setProductPrice(product.getPrice());
+      item.setProductImageUrl(product.getImageUrl());
+    }
+
+    // 计算订单总金额
+    BigDecimal totalAmount = calculateTotalAmount(cartItems);
+
+    // 按余额快照快速检查，余额明显不足时不再扣减库存
+    if (!balanceLedgerService.hasSufficientBalance(user.getId(), totalAmount)) {
+      throw new RuntimeException("余额不足，当前余额：" + balanceLedgerService.getBalance(user.getId()) +
+          "，需要支付：" + totalAmount);
+    }
+
+    // 条件扣减库存，并发结算时由数据库保证不超卖
+    Map<Long, Integer> stockDeltas = new LinkedHashMap<>();
+    for (CartItem item : cartItems) {
+      stockDeltas.merge(item.getProductId(), -item.getQuantity(), Integer::sum);
+    }
+    if (!productService.adjustStock(stockDeltas)) {
+      throw new RuntimeException("商品库存不足，请刷新购物车后重试");
     }
 
     // 生成订单号
-    String orderNumber = generateOrderNumber();
+    String orderNumber = orderNumberGenerator.next();
+
+    // 条件扣减余额并追加支付流水，并发扣款时由数据库保证余额不为负
+    if (!balanceLedgerService.debit(user.getId(), totalAmount, BalanceLedgerService.PAYMENT, "balance",
+        orderNumber, "订单支付")) {
+      throw new RuntimeException("余额不足，需要支付：" + totalAmount);
+    }
+    log.info("扣除用户余额: username={}, 扣除金额={}", username, totalAmount);
 
     // 创建订单
     Order order = new Order();
@@ -93,7 +135,8 @@ public class OrderService extends ServiceImpl<OrderMapper, Order> {
     save(order);
     log.info("订单创建成功: orderNumber={}, totalAmount={}", orderNumber, totalAmount);
 
-    // 创建订单项
+    // 多行插入订单项
+    List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
     for (CartItem item : cartItems) {
       OrderItem orderItem = new OrderItem();
       orderItem.setOrderId(order.getId());
@@ -103,29 +146,16 @@ public class OrderService extends ServiceImpl<OrderMapper, Order> {
       orderItem.setProductImageUrl(item.getProductImageUrl());
       orderItem.setQuantity(item.getQuantity());
       orderItem.setSubtotal(item.getProductPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
-
-      orderItemMapper.insert(orderItem);
+      orderItems.add(orderItem);
     }
+    orderItemMapper.insertBatch(orderItems);
+    order.setItems(orderItems);
 
-    // 扣除用户余额
-    BigDecimal newBalance = user.getBalance().subtract(totalAmount);
-    user.setBalance(newBalance);
-    userService.updateById(user);
-    log.info("扣除用户余额: username={}, 扣除金额={}, 剩余余额={}", username, totalAmount, newBalance);
-
-    // 减少商品库存
-    for (CartItem item : cartItems) {
-      Product product = productService.getById(item.getProductId());
-      product.setStock(product.getStock() - item.getQuantity());
-      productService.updateById(product);
-      log.debug("减少商品库存: productId={}, 减少数量={}, 剩余库存={}",
-          product.getId(), item.getQuantity(), product.getStock());
-    }
-
-    // 清空购物车
-    cartService.clearCart(username);
+    // 清空购物车，cart_items在当前事务中删除，与订单一起提交
+    cartService.clearCart(user.getId());
     log.info("清空购物车: username={}", username);
 
+    businessMetrics.recordCheckout(totalAmount);
     return order;
   }
 
@@ -137,7 +167,14 @@ public class OrderService extends ServiceImpl<OrderMapper, Order> {
     if (user == null) {
       throw new RuntimeException("用户不存在");
     }
-    return baseMapper.selectOrdersByUserId(user.getId());
+    return getUserOrders(user.getId());
+  }
+
+  /**
+   * 获取用户订单列表（通过用户ID）
+   */
+  public List<Order> getUserOrders(Long userId) {
+    return withItems(baseMapper.selectOrdersByUserId(userId));
   }
 
   /**
@@ -148,8 +185,27 @@ public class OrderService extends ServiceImpl<OrderMapper, Order> {
     if (user == null) {
       throw new RuntimeException("用户不存在");
     }
-    Page<Order> pageObj = new Page<>(page, size);
-    return baseMapper.selectOrdersByUserIdWithPage(pageObj, user.getId());
+    return getUserOrdersWithPage(user.getId(), page, size);
+  }
+
+  /**
+   * 获取用户订单列表（分页，通过用户ID）
+   */
+  public Page<Order> getUserOrdersWithPage(Long userId, int page, int size) {
+    Page<Order> pageObj = baseMapper.selectOrdersByUserIdWithPage(new Page<>(page, size), userId);
+    withItems(pageObj.getRecords());
+    return pageObj;
+  }
+
+  /**
+   * 游标分页获取用户订单列表，翻到任意深度的代价都与第一页相同
+   */
+  public CursorPage<Order> getUserOrdersByCursor(Long userId, String cursor, int size) {
+    int limit = CursorPage.normalizeSize(size);
+    List<Order> rows = baseMapper.selectOrdersByUserIdAfter(userId, PageCursor.decode(cursor), limit + 1);
+    CursorPage<Order> result = CursorPage.of(rows, limit, order -> PageCursor.of(order.getCreateTime(), order.getId()));
+    withItems(result.getRecords());
+    return result;
   }
 
   /**
@@ -160,16 +216,19 @@ public class OrderService extends ServiceImpl<OrderMapper, Order> {
     if (user == null) {
       throw new RuntimeException("用户不存在");
     }
+    return getOrderDetail(orderId, user.getId());
+  }
 
+  /**
+   * 获取订单详情（通过用户ID）
+   */
+  public Order getOrderDetail(Long orderId, Long userId) {
     Order order = getById(orderId);
-    if (order == null || !order.getUserId().equals(user.getId())) {
+    if (order == null || !order.getUserId().equals(userId)) {
       throw new RuntimeException("订单不存在或无权限访问");
     }
 
-    // 获取订单项
-    List<OrderItem> orderItems = orderItemMapper.selectByOrderId(orderId);
-    // 这里可以将订单项设置到订单对象中，需要在Order实体中添加对应字段
-
+    order.setItems(orderItemMapper.selectByOrderId(orderId));
     return order;
   }
 
@@ -182,6 +241,18 @@ public class OrderService extends ServiceImpl<OrderMapper, Order> {
     if (user == null) {
       throw new RuntimeException("用户不存在");
     }
+    cancelOrder(orderId, user.getId());
+  }
+
+  /**
+   * 取消订单（通过用户ID）
+   */
+  @Transactional
+  public void cancelOrder(Long orderId, Long userId) {
+    User user = userService.getById(userId);
+    if (user == null) {
+      throw new RuntimeException("用户不存在");
+    }
 
     Order order = getById(orderId);
     if (order == null || !order.getUserId().equals(user.getId())) {
@@ -194,23 +265,23 @@ public class OrderService extends ServiceImpl<OrderMapper, Order> {
 
     // 如果已支付，退还余额
     if ("paid".equals(order.getStatus())) {
-      BigDecimal newBalance = user.getBalance().add(order.getTotalAmount());
-      user.setBalance(newBalance);
-      userService.updateById(user);
-      log.info("退还用户余额: username={}, 退还金额={}, 新余额={}",
-          username, order.getTotalAmount(), newBalance);
-
-      // 恢复商品库存
-      List<OrderItem> orderItems = orderItemMapper.selectByOrderId(orderId);
-      for (OrderItem item : orderItems) {
-        Product product = productService.getById(item.getProductId());
-        if (product != null) {
-          product.setStock(product.getStock() + item.getQuantity());
-          productService.updateById(product);
-          log.debug("恢复商品库存: productId={}, 恢复数量={}, 新库存={}",
-              product.getId(), item.getQuantity(), product.getStock());
-        }
+      // 同一订单只能有一条退款流水，并发取消时重复退款会因唯一键冲突回滚
+      balanceLedgerService.credit(user.getId(), order.getTotalAmount(), BalanceLedgerService.REFUND, "balance",
+          order.getOrderNumber(), "订单取消退款");
+      log.info("退还用户余额: username={}, 退还金额={}", user.getUsername(), order.getTotalAmount());
+
+      // 单条语句恢复所有商品的库存，order_items外键保证订单中的商品都存在，更新行数不符时回滚整个取消
+      Map<Long, Integer> stockDeltas = new LinkedHashMap<>();
+      for (OrderItem item : orderItemMapper.selectByOrderId(orderId)) {
+        stockDeltas.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+      }
+      if (!productService.adjustStock(stockDeltas)) {
+        throw new RuntimeException("恢复商品库存失败，请稍后重试");
       }
+      log.debug("恢复商品库存: orderId={}, 商品数={}", orderId, stockDeltas.size());
+
+      // 秒杀商品提交后同步归还内存令牌，否则恢复的库存在秒杀期间无法再售出
+      TransactionUtils.afterCommit(() -> flashSaleService.releaseCancelled(user.getId(), stockDeltas));
     }
 
     // 更新订单状态
@@ -220,12 +291,32 @@ public class OrderService extends ServiceImpl<OrderMapper, Order> {
   }
 
   /**
-   * 生成订单号
+   * 为一批订单填充订单项，每批订单只执行一次IN查询，在内存中按订单分组
+   */
+  private List<Order> withItems(List<Order> orders) {
+    for (int from = 0; from < orders.size(); from += ITEM_QUERY_BATCH_SIZE) {
+      List<Order> batch = orders.subList(from, Math.min(from + ITEM_QUERY_BATCH_SIZE, orders.size()));
+      Map<Long, List<OrderItem>> itemsByOrder = orderItemMapper
+          .selectByOrderIds(batch.stream().map(Order::getId).toList()).stream()
+          .collect(Collectors.groupingBy(OrderItem::getOrderId));
+      for (Order order : batch) {
+        order.setItems(itemsByOrder.getOrDefault(order.getId(), new ArrayList<>()));
+      }
+    }
+    return orders;
+  }
+
+  /**
+   * 计算购物车商品总金额
    */
-  private String generateOrderNumber() {
-    LocalDateTime now = LocalDateTime.now();
-    String timestamp = now.format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-    String randomSuffix = String.valueOf((int) (Math.random() * 1000));
-    return "ORD" + timestamp + String.format("%03d", Integer.parseInt(randomSuffix));
+  static BigDecimal calculateTotalAmount(List<CartItem> cartItems) {
+    BigDecimal totalAmount = BigDecimal.ZERO;
+    for (CartItem item : cartItems) {
+      if (item.getProductPrice() != null && item.getQuantity() != null) {
+        BigDecimal itemTotal = item.getProductPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
+        totalAmount = totalAmount.add(itemTotal);
+      }
+    }
+    return totalAmount;
   }
-}
\ No newline at end of file
+}
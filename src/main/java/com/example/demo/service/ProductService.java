@@ -3,40 +3,274 @@ package com.example.demo.service;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.demo.common.CacheStatsUtils;
+import com.example.demo.common.CursorPage;
+import com.example.demo.common.PageCursor;
+import com.example.demo.common.TransactionUtils;
 import com.example.demo.entity.Product;
 import com.example.demo.mapper.ProductMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
 /**
  * 商品服务类
  */
 @Service
+@RequiredArgsConstructor
+@Log4j2
 public class ProductService extends ServiceImpl<ProductMapper, Product> {
 
+  private final MeterRegistry meterRegistry;
+
+  @Value("${product.cache.max-size:10000}")
+  private long productCacheMaxSize;
+
+  @Value("${product.cache.listing-max-size:1000}")
+  private long listingCacheMaxSize;
+
+  @Value("${product.cache.ttl-seconds:600}")
+  private long productCacheTtlSeconds;
+
+  @Value("${product.cache.stock-ttl-seconds:30}")
+  private long stockCacheTtlSeconds;
+
+  /**
+   * 商品详情缓存，其中的库存字段不作为展示依据
+   */
+  private Cache<Long, Product> productCache;
+
+  /**
+   * 库存缓存，与详情分开存放，库存变化时只失效受影响的商品
+   */
+  private Cache<Long, Integer> stockCache;
+
+  /**
+   * 列表缓存，只保存每页的商品ID和总数，记录内容从详情缓存和库存缓存组装
+   */
+  private Cache<ListingKey, CachedListing> listingCache;
+
+  @PostConstruct
+  public void initCatalogCache() {
+    productCache = Caffeine.newBuilder()
+        .maximumSize(productCacheMaxSize)
+        .expireAfterWrite(productCacheTtlSeconds, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+    stockCache = Caffeine.newBuilder()
+        .maximumSize(productCacheMaxSize)
+        .expireAfterWrite(stockCacheTtlSeconds, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+    listingCache = Caffeine.newBuilder()
+        .maximumSize(listingCacheMaxSize)
+        .expireAfterWrite(productCacheTtlSeconds, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, productCache, "product.detail");
+    CaffeineCacheMetrics.monitor(meterRegistry, stockCache, "product.stock");
+    CaffeineCacheMetrics.monitor(meterRegistry, listingCache, "product.listing");
+  }
+
   /**
    * 分页获取商品列表
    */
   public Page<Product> getProducts(int page, int size, String search, String category) {
-    Page<Product> pageObj = new Page<>(page, size);
+    return getProducts(page, size, search, category, true);
+  }
+
+  /**
+   * 分页获取商品列表，searchCount为false时不查询总数
+   */
+  public Page<Product> getProducts(int page, int size, String search, String category, boolean searchCount) {
+    ListingKey key = new ListingKey(page, size, normalize(search), normalize(category), searchCount);
+    CachedListing listing = listingCache.get(key, this::loadListing);
+
+    Page<Product> pageObj = new Page<>(page, size, searchCount);
+    pageObj.setTotal(listing.total());
+    pageObj.setRecords(assemble(listing.ids()));
+    return pageObj;
+  }
+
+  /**
+   * 游标分页获取商品列表，按 (create_time, id) 倒序取游标之后的记录，不查询总数
+   */
+  public CursorPage<Product> getProductsByCursor(String cursor, int size, String search, String category) {
+    int limit = CursorPage.normalizeSize(size);
+    PageCursor pageCursor = PageCursor.decode(cursor);
+    QueryWrapper<Product> queryWrapper = buildProductQuery(search, category);
+    if (pageCursor != null) {
+      queryWrapper.and(w -> w.lt("create_time", pageCursor.getCreateTime())
+          .or(o -> o.eq("create_time", pageCursor.getCreateTime()).lt("id", pageCursor.getId())));
+    }
+    queryWrapper.orderByDesc("create_time", "id").last("LIMIT " + (limit + 1));
+
+    return CursorPage.of(list(queryWrapper), limit, product -> PageCursor.of(product.getCreateTime(), product.getId()));
+  }
+
+  /**
+   * 获取商品详情
+   */
+  public Product getProductDetail(Long id) {
+    List<Product> products = assemble(List.of(id));
+    return products.isEmpty() ? null : products.get(0);
+  }
+
+  /**
+   * 按ID批量获取商品，优先读取详情缓存和库存缓存，不存在的商品不包含在结果中
+   */
+  public Map<Long, Product> getProductsByIds(Collection<Long> ids) {
+    Map<Long, Product> products = new HashMap<>();
+    for (Product product : assemble(List.copyOf(ids))) {
+      products.put(product.getId(), product);
+    }
+    return products;
+  }
+
+  /**
+   * 单条语句原子调整多个商品的库存，正数增加、负数扣减。
+   * 任一商品不存在或库存不足时返回false，调用方应回滚事务
+   */
+  public boolean adjustStock(Map<Long, Integer> deltas) {
+    if (deltas.isEmpty()) {
+      return true;
+    }
+    boolean success = baseMapper.adjustStockBatch(deltas) == deltas.size();
+    evictStock(deltas.keySet());
+    return success;
+  }
+
+  /**
+   * 失效商品的库存缓存，在当前事务提交后再次失效，避免并发读取把旧库存写回缓存
+   */
+  public void evictStock(Collection<Long> productIds) {
+    stockCache.invalidateAll(productIds);
+    TransactionUtils.afterCommit(() -> stockCache.invalidateAll(productIds));
+  }
+
+  /**
+   * 获取商品缓存统计信息
+   */
+  public Map<String, Object> getCatalogCacheStats() {
+    Map<String, Object> stats = new LinkedHashMap<>();
+    stats.put("product", CacheStatsUtils.toMap(productCache));
+    stats.put("stock", CacheStatsUtils.toMap(stockCache));
+    stats.put("listing", CacheStatsUtils.toMap(listingCache));
+    return stats;
+  }
+
+  /**
+   * 构造商品列表的过滤条件
+   */
+  private QueryWrapper<Product> buildProductQuery(String search, String category) {
     QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
 
     if (search != null && !search.trim().isEmpty()) {
-      queryWrapper.like("name", search).or().like("description", search);
+      queryWrapper.and(w -> w.like("name", search).or().like("description", search));
     }
 
     if (category != null && !category.trim().isEmpty()) {
       queryWrapper.eq("category", category);
     }
+    return queryWrapper;
+  }
 
+  /**
+   * 从数据库加载一页商品，顺带填充详情缓存和库存缓存
+   */
+  private CachedListing loadListing(ListingKey key) {
+    Page<Product> pageObj = new Page<>(key.page(), key.size(), key.searchCount());
+    QueryWrapper<Product> queryWrapper = buildProductQuery(key.search(), key.category());
     queryWrapper.orderByDesc("create_time");
+    page(pageObj, queryWrapper);
 
-    return page(pageObj, queryWrapper);
+    List<Long> ids = new ArrayList<>(pageObj.getRecords().size());
+    for (Product product : pageObj.getRecords()) {
+      cache(product);
+      ids.add(product.getId());
+    }
+    log.debug("加载商品列表: key={}, count={}", key, ids.size());
+    return new CachedListing(List.copyOf(ids), pageObj.getTotal());
   }
 
   /**
-   * 获取商品详情
+   * 按ID从缓存组装商品，缓存未命中的详情和库存各用一次IN查询补齐
    */
-  public Product getProductDetail(Long id) {
-    return getById(id);
+  private List<Product> assemble(List<Long> ids) {
+    if (ids.isEmpty()) {
+      return new ArrayList<>();
+    }
+    Map<Long, Product> details = productCache.getAll(ids, this::loadProducts);
+    Map<Long, Integer> stocks = stockCache.getAll(details.keySet(), this::loadStocks);
+
+    List<Product> products = new ArrayList<>(ids.size());
+    for (Long id : ids) {
+      Product cached = details.get(id);
+      if (cached == null) {
+        continue;
+      }
+      // 返回副本，避免调用方修改缓存中的对象
+      Product product = new Product();
+      BeanUtils.copyProperties(cached, product);
+      product.setStock(stocks.getOrDefault(id, cached.getStock()));
+      products.add(product);
+    }
+    return products;
+  }
+
+  private Map<Long, Product> loadProducts(Set<? extends Long> ids) {
+    Map<Long, Product> result = new HashMap<>();
+    for (Product product : listByIds(ids)) {
+      stockCache.put(product.getId(), product.getStock());
+      result.put(product.getId(), product);
+    }
+    return result;
+  }
+
+  private Map<Long, Integer> loadStocks(Set<? extends Long> ids) {
+    QueryWrapper<Product> queryWrapper = new QueryWrapper<>();
+    queryWrapper.select("id", "stock").in("id", ids);
+    Map<Long, Integer> result = new HashMap<>();
+    for (Product product : list(queryWrapper)) {
+      result.put(product.getId(), product.getStock());
+    }
+    return result;
+  }
+
+  private void cache(Product product) {
+    productCache.put(product.getId(), product);
+    stockCache.put(product.getId(), product.getStock());
+  }
+
+  private static String normalize(String value) {
+    return value == null ? "" : value.trim();
+  }
+
+  /**
+   * 列表缓存的键
+   */
+  private record ListingKey(int page, int size, String search, String category, boolean searchCount) {
+  }
+
+  /**
+   * 缓存的一页列表
+   */
+  private record CachedListing(List<Long> ids, long total) {
   }
-}
\ No newline at end of file
+}
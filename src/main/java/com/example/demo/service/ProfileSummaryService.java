@@ -0,0 +1,90 @@
+package com.example.demo.service;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 个人主页聚合服务 - 收藏、订单、帖子、预约、充值记录五个分区并行查询，耗时取决于最慢的分区
+ */
+@Service
+@RequiredArgsConstructor
+@Log4j2
+public class ProfileSummaryService {
+
+  /**
+   * 每个分区最多返回的记录数上限
+   */
+  private static final int MAX_LIMIT = 50;
+
+  private final FavoriteService favoriteService;
+  private final OrderService orderService;
+  private final UserService userService;
+  private final AsyncTaskExecutor profileSummaryExecutor;
+
+  @Value("${profile.summary.default-limit:5}")
+  private int defaultLimit;
+
+  @Value("${profile.summary.timeout-ms:5000}")
+  private long timeoutMillis;
+
+  /**
+   * 获取个人主页汇总，每个分区返回最近的limit条记录和总数
+   */
+  public Map<String, Object> getSummary(Long userId, Integer limit) {
+    int size = limit == null || limit <= 0 ? defaultLimit : Math.min(limit, MAX_LIMIT);
+
+    Map<String, Supplier<? extends Page<?>>> queries = new LinkedHashMap<>();
+    queries.put("favorites", () -> favoriteService.getUserFavoritesWithPage(userId, 1, size));
+    queries.put("orders", () -> orderService.getUserOrdersWithPage(userId, 1, size));
+    queries.put("posts", () -> userService.getUserPostsWithPage(userId, 1, size));
+    queries.put("reservations", () -> userService.getUserReservationsWithPage(userId, 1, size));
+    queries.put("rechargeHistory", () -> userService.getRechargeHistoryWithPage(userId, 1, size));
+
+    Map<String, Future<Map<String, Object>>> sections = new LinkedHashMap<>();
+    try {
+      queries.forEach((name, query) -> sections.put(name, profileSummaryExecutor.submit(() -> section(query))));
+
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+      Map<String, Object> summary = new LinkedHashMap<>();
+      for (Map.Entry<String, Future<Map<String, Object>>> entry : sections.entrySet()) {
+        summary.put(entry.getKey(), entry.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+      }
+      return summary;
+    } catch (TaskRejectedException e) {
+      log.warn("个人主页聚合执行器已满，拒绝请求: userId={}", userId);
+      throw new RuntimeException("系统繁忙，请稍后重试");
+    } catch (TimeoutException e) {
+      throw new RuntimeException("获取个人主页数据超时");
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause().getMessage(), e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("获取个人主页数据被中断");
+    } finally {
+      // 超时或出错时取消其余分区，排队中的分区不再执行，执行中的分区被中断，尽早归还执行器线程和数据库连接
+      sections.values().forEach(future -> future.cancel(true));
+    }
+  }
+
+  private static Map<String, Object> section(Supplier<? extends Page<?>> query) {
+    Page<?> page = query.get();
+    Map<String, Object> section = new LinkedHashMap<>();
+    section.put("records", page.getRecords());
+    section.put("total", page.getTotal());
+    section.put("limit", page.getSize());
+    return section;
+  }
+}
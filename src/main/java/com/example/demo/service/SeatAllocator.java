@@ -0,0 +1,125 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.LearningActivity;
+import com.example.demo.mapper.LearningActivityMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 活动名额分配器 - 每个活动在内存中维护剩余名额，预约时原子扣减，满员的请求无需访问数据库即可拒绝；
+ * 内存显示满员或已关闭时按间隔从数据库重新加载，其他实例归还的名额、调大的容量和重新开放的活动由此生效
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class SeatAllocator {
+
+  private final LearningActivityMapper learningActivityMapper;
+
+  @Value("${activity.seats.recheck-interval-ms:1000}")
+  private long recheckIntervalMillis;
+
+  private final ConcurrentMap<Long, Seats> seats = new ConcurrentHashMap<>();
+
+  /**
+   * 占用一个名额，返回的名额在事务回滚时需要调用release归还
+   */
+  public Seats acquire(Long activityId) {
+    Seats activitySeats = seats.computeIfAbsent(activityId, this::load);
+    if (activitySeats != null && activitySeats.open && activitySeats.tryAcquire()) {
+      return activitySeats;
+    }
+
+    // 拒绝之前确认内存中的名额不是过期数据
+    activitySeats = reload(activityId, activitySeats);
+    if (activitySeats == null) {
+      throw new RuntimeException("活动不存在");
+    }
+    if (!activitySeats.open) {
+      throw new RuntimeException("活动已关闭");
+    }
+    if (!activitySeats.tryAcquire()) {
+      throw new RuntimeException("活动已满员");
+    }
+    return activitySeats;
+  }
+
+  /**
+   * 取消预约后归还一个名额
+   */
+  public void release(Long activityId) {
+    Seats activitySeats = seats.get(activityId);
+    if (activitySeats != null) {
+      activitySeats.release();
+    }
+  }
+
+  /**
+   * 丢弃内存中的名额，下次预约时从数据库重新加载
+   */
+  public void invalidate(Long activityId) {
+    seats.remove(activityId);
+  }
+
+  /**
+   * 距上次加载超过重新检查间隔时从数据库重新加载，并发的请求只有一个访问数据库，其余使用它加载的结果
+   */
+  private Seats reload(Long activityId, Seats stale) {
+    if (stale != null && System.currentTimeMillis() - stale.loadedAt < recheckIntervalMillis) {
+      return stale;
+    }
+    return seats.compute(activityId, (id, current) -> current == null || current == stale ? load(id) : current);
+  }
+
+  private Seats load(Long activityId) {
+    LearningActivity activity = learningActivityMapper.selectById(activityId);
+    if (activity == null) {
+      return null;
+    }
+    int remaining = Math.max(0, activity.getMaxCapacity() - activity.getReservedCount());
+    log.debug("加载活动名额: activityId={}, remaining={}", activityId, remaining);
+    return new Seats("active".equals(activity.getStatus()), activity.getMaxCapacity(), remaining);
+  }
+
+  /**
+   * 单个活动的剩余名额
+   */
+  public static final class Seats {
+
+    private final boolean open;
+    private final int capacity;
+    private final AtomicInteger remaining;
+    private final long loadedAt = System.currentTimeMillis();
+
+    private Seats(boolean open, int capacity, int remaining) {
+      this.open = open;
+      this.capacity = capacity;
+      this.remaining = new AtomicInteger(remaining);
+    }
+
+    private boolean tryAcquire() {
+      while (true) {
+        int current = remaining.get();
+        if (current <= 0) {
+          return false;
+        }
+        if (remaining.compareAndSet(current, current - 1)) {
+          return true;
+        }
+      }
+    }
+
+    /**
+     * 归还一个名额，不会超过活动容量
+     */
+    public void release() {
+      remaining.updateAndGet(current -> Math.min(current + 1, capacity));
+    }
+  }
+}
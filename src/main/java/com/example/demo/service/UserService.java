@@ -1,14 +1,23 @@
 package com.example.demo.service;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.example.demo.common.CacheStatsUtils;
+import com.example.demo.common.TransactionUtils;
 import com.example.demo.config.JwtUtils;
-import com.example.demo.entity.RechargeRecord;
 import com.example.demo.entity.User;
-import com.example.demo.mapper.RechargeRecordMapper;
 import com.example.demo.mapper.UserMapper;
+import com.example.demo.metrics.BusinessMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +25,9 @@ import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 用户服务类 - 重新设计token处理逻辑
@@ -26,7 +38,31 @@ import java.util.Map;
 public class UserService extends ServiceImpl<UserMapper, User> {
 
   private final JwtUtils jwtUtils;
-  private final RechargeRecordMapper rechargeRecordMapper;
+  private final BalanceLedgerService balanceLedgerService;
+  private final FavoriteFeedService favoriteFeedService;
+  private final BusinessMetrics businessMetrics;
+  private final MeterRegistry meterRegistry;
+
+  @Value("${user.cache.max-size:10000}")
+  private long userCacheMaxSize;
+
+  @Value("${user.cache.ttl-seconds:300}")
+  private long userCacheTtlSeconds;
+
+  /**
+   * 用户名到用户的读穿缓存，写入用户行时失效
+   */
+  private Cache<String, User> userCache;
+
+  @PostConstruct
+  public void initUserCache() {
+    userCache = Caffeine.newBuilder()
+        .maximumSize(userCacheMaxSize)
+        .expireAfterWrite(userCacheTtlSeconds, TimeUnit.SECONDS)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, userCache, "user");
+  }
 
   /**
    * 用户注册 - 重新设计
@@ -99,9 +135,7 @@ public class UserService extends ServiceImpl<UserMapper, User> {
    */
   public User getUserByUsername(String username) {
     log.debug("查询用户信息: username={}", username);
-    QueryWrapper<User> queryWrapper = new QueryWrapper<>();
-    queryWrapper.eq("username", username);
-    User user = getOne(queryWrapper);
+    User user = userCache.get(username, this::loadUserByUsername);
 
     if (user != null) {
       log.debug("成功找到用户: username={}, userId={}", username, user.getId());
@@ -109,12 +143,47 @@ public class UserService extends ServiceImpl<UserMapper, User> {
       log.debug("未找到用户: username={}", username);
     }
 
-    return user;
+    // 返回副本，避免调用方修改缓存中的对象
+    return user != null ? copyOf(user) : null;
+  }
+
+  /**
+   * 从数据库加载用户，不存在时返回null且不缓存
+   */
+  private User loadUserByUsername(String username) {
+    QueryWrapper<User> queryWrapper = new QueryWrapper<>();
+    queryWrapper.eq("username", username);
+    return getOne(queryWrapper);
+  }
+
+  /**
+   * 使用户缓存失效，在事务中调用时提交后会再次失效，防止并发读取把旧值写回缓存
+   */
+  public void evictUser(String username) {
+    if (username == null) {
+      return;
+    }
+    userCache.invalidate(username);
+    TransactionUtils.afterCommit(() -> userCache.invalidate(username));
+  }
+
+  /**
+   * 获取用户缓存命中统计
+   */
+  public Map<String, Object> getUserCacheStats() {
+    return CacheStatsUtils.toMap(userCache);
+  }
+
+  private static User copyOf(User source) {
+    User copy = new User();
+    BeanUtils.copyProperties(source, copy);
+    return copy;
   }
 
   /**
    * 更新用户信息
    */
+  @Transactional
   public void updateUserInfo(Long userId, String nickname, String email, String phone, String gender) {
     log.info("开始更新用户信息: userId={}, email={}", userId, email);
 
@@ -124,12 +193,17 @@ public class UserService extends ServiceImpl<UserMapper, User> {
       throw new RuntimeException("用户不存在");
     }
 
+    boolean renamed = !Objects.equals(user.getNickname(), nickname);
     user.setNickname(nickname);
     user.setEmail(email);
     user.setPhone(phone);
     user.setGender(gender);
 
     updateById(user);
+    if (renamed) {
+      favoriteFeedService.onAuthorRenamed(userId, nickname);
+    }
+    evictUser(user.getUsername());
     log.info("用户信息更新成功: userId={}, username={}", userId, user.getUsername());
   }
 
@@ -143,8 +217,21 @@ public class UserService extends ServiceImpl<UserMapper, User> {
     if (user == null) {
       throw new RuntimeException("用户不存在");
     }
+    return getUserPosts(user.getId());
+  }
 
-    return baseMapper.selectUserPosts(user.getId());
+  /**
+   * 获取用户发布的帖子（通过用户ID）
+   */
+  public List<Map<String, Object>> getUserPosts(Long userId) {
+    return baseMapper.selectUserPosts(userId);
+  }
+
+  /**
+   * 分页获取用户发布的帖子（通过用户ID）
+   */
+  public Page<Map<String, Object>> getUserPostsWithPage(Long userId, int page, int size) {
+    return baseMapper.selectUserPostsPage(new Page<>(page, size), userId);
   }
 
   /**
@@ -157,8 +244,21 @@ public class UserService extends ServiceImpl<UserMapper, User> {
     if (user == null) {
       throw new RuntimeException("用户不存在");
     }
+    return getUserReservations(user.getId());
+  }
+
+  /**
+   * 获取用户的预约记录（通过用户ID）
+   */
+  public List<Map<String, Object>> getUserReservations(Long userId) {
+    return baseMapper.selectUserReservations(userId);
+  }
 
-    return baseMapper.selectUserReservations(user.getId());
+  /**
+   * 分页获取用户的预约记录（通过用户ID）
+   */
+  public Page<Map<String, Object>> getUserReservationsWithPage(Long userId, int page, int size) {
+    return baseMapper.selectUserReservationsPage(new Page<>(page, size), userId);
   }
 
   /**
@@ -177,24 +277,13 @@ public class UserService extends ServiceImpl<UserMapper, User> {
       throw new RuntimeException("用户不存在");
     }
 
-    // 更新用户余额
-    BigDecimal newBalance = (user.getBalance() != null ? user.getBalance() : BigDecimal.ZERO).add(amount);
-    user.setBalance(newBalance);
-    updateById(user);
+    // 增加余额快照并追加一条充值流水
+    String transactionId = "TXN" + UUID.randomUUID().toString().replace("-", "");
+    balanceLedgerService.credit(user.getId(), amount, BalanceLedgerService.RECHARGE, paymentMethod, transactionId,
+        "用户充值");
+    businessMetrics.recordRecharge(paymentMethod, amount);
 
-    // 记录充值记录
-    RechargeRecord record = new RechargeRecord();
-    record.setUserId(user.getId());
-    record.setAmount(amount);
-    record.setPaymentMethod(paymentMethod);
-    record.setStatus("success");
-    record.setTransactionId("TXN" + System.currentTimeMillis());
-    record.setRemark("用户充值");
-
-    rechargeRecordMapper.insert(record);
-
-    log.info("充值成功: username={}, 原余额={}, 充值金额={}, 新余额={}",
-        username, user.getBalance().subtract(amount), amount, newBalance);
+    log.info("充值成功: username={}, 充值金额={}, transactionId={}", username, amount, transactionId);
   }
 
   /**
@@ -207,7 +296,20 @@ public class UserService extends ServiceImpl<UserMapper, User> {
     if (user == null) {
       throw new RuntimeException("用户不存在");
     }
+    return getRechargeHistory(user.getId());
+  }
 
-    return rechargeRecordMapper.selectUserRechargeHistory(user.getId());
+  /**
+   * 获取用户充值记录（通过用户ID）
+   */
+  public List<Map<String, Object>> getRechargeHistory(Long userId) {
+    return balanceLedgerService.getRechargeHistory(userId);
+  }
+
+  /**
+   * 分页获取用户充值记录（通过用户ID）
+   */
+  public Page<Map<String, Object>> getRechargeHistoryWithPage(Long userId, int page, int size) {
+    return balanceLedgerService.getRechargeHistoryWithPage(userId, page, size);
   }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.example.demo.service;
+
+import com.example.demo.mapper.FavoriteFeedMapper;
+import com.example.demo.mapper.ForumPostMapper;
+import com.example.demo.mapper.LearningActivityMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+
+/**
+ * 浏览量写回聚合器 - 浏览量先在内存中累加，定时和关闭时批量写回数据库
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+public class ViewCountAggregator {
+
+  private final ForumPostMapper forumPostMapper;
+  private final LearningActivityMapper learningActivityMapper;
+  private final FavoriteFeedMapper favoriteFeedMapper;
+
+  @Value("${views.flush-batch-size:500}")
+  private int flushBatchSize;
+
+  /**
+   * 待写回的浏览量增量。只为存在的内容累加，写回后归零的计数器会被移除，
+   * 条目数不超过一个写回周期内被浏览的内容数；累加与移除都在compute中进行，移除时不会丢失并发累加的增量
+   */
+  private final ConcurrentMap<Long, LongAdder> postDeltas = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Long, LongAdder> activityDeltas = new ConcurrentHashMap<>();
+
+  /**
+   * 记录一次帖子浏览
+   */
+  public void incrementPostViews(Long postId) {
+    add(postDeltas, postId, 1);
+  }
+
+  /**
+   * 记录一次活动浏览
+   */
+  public void incrementActivityViews(Long activityId) {
+    add(activityDeltas, activityId, 1);
+  }
+
+  /**
+   * 获取帖子尚未写回的浏览量
+   */
+  public long getPendingPostViews(Long postId) {
+    return pending(postDeltas, postId);
+  }
+
+  /**
+   * 获取活动尚未写回的浏览量
+   */
+  public long getPendingActivityViews(Long activityId) {
+    return pending(activityDeltas, activityId);
+  }
+
+  /**
+   * 定时批量写回浏览量
+   */
+  @Scheduled(fixedDelayString = "${views.flush-interval-ms:5000}")
+  public void flush() {
+    flush(postDeltas, forumPostMapper::increaseViewsBatch, "forum", "帖子");
+    flush(activityDeltas, learningActivityMapper::increaseViewsBatch, "learning", "活动");
+  }
+
+  /**
+   * 应用关闭前写回剩余的浏览量
+   */
+  @PreDestroy
+  public void flushOnShutdown() {
+    log.info("应用关闭，写回剩余浏览量");
+    flush();
+  }
+
+  private static void add(ConcurrentMap<Long, LongAdder> deltas, Long id, long delta) {
+    deltas.compute(id, (key, adder) -> {
+      LongAdder counter = adder != null ? adder : new LongAdder();
+      counter.add(delta);
+      return counter;
+    });
+  }
+
+  private long pending(ConcurrentMap<Long, LongAdder> deltas, Long id) {
+    LongAdder adder = deltas.get(id);
+    return adder == null ? 0 : adder.sum();
+  }
+
+  private void flush(ConcurrentMap<Long, LongAdder> deltas, ToIntFunction<Map<Long, Long>> writer, String postType,
+      String type) {
+    Map<Long, Long> batch = new LinkedHashMap<>();
+    for (Map.Entry<Long, LongAdder> entry : deltas.entrySet()) {
+      // 先取值再扣减，期间的并发累加会留到下一轮写回
+      long delta = entry.getValue().sum();
+      if (delta == 0) {
+        continue;
+      }
+      entry.getValue().add(-delta);
+      batch.put(entry.getKey(), delta);
+      if (batch.size() >= flushBatchSize) {
+        write(deltas, batch, writer, postType, type);
+        batch = new LinkedHashMap<>();
+      }
+    }
+    if (!batch.isEmpty()) {
+      write(deltas, batch, writer, postType, type);
+    }
+    // 移除已归零的计数器，在compute中再次确认为零，期间的并发累加会保留计数器
+    for (Long id : deltas.keySet()) {
+      deltas.computeIfPresent(id, (key, adder) -> adder.sum() == 0 ? null : adder);
+    }
+  }
+
+  private void write(ConcurrentMap<Long, LongAdder> deltas, Map<Long, Long> batch,
+      ToIntFunction<Map<Long, Long>> writer, String postType, String type) {
+    try {
+      int rows = writer.applyAsInt(batch);
+      log.debug("{}浏览量写回完成: count={}, rows={}", type, batch.size(), rows);
+    } catch (Exception e) {
+      // 写回失败时把增量加回计数器，等待下一轮重试
+      batch.forEach((id, delta) -> add(deltas, id, delta));
+      log.error("{}浏览量写回失败，稍后重试: count={}, error={}", type, batch.size(), e.getMessage(), e);
+      return;
+    }
+    try {
+      // 收藏投影中的浏览量只用于列表展示，同步失败不重试，避免重复累加内容表
+      favoriteFeedMapper.increaseViewsBatch(postType, batch);
+    } catch (Exception e) {
+      log.warn("收藏投影浏览量同步失败: type={}, count={}, error={}", type, batch.size(), e.getMessage());
+    }
+  }
+}
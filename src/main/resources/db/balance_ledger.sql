@@ -0,0 +1,29 @@
+-- 数据库更新脚本：创建余额流水表并迁移已有充值记录
+-- 用途：余额变动改为对 users.balance 原子增减并追加流水，不再读出后整行写回；
+--       充值记录成为 recharge 类型的流水，recharge_records 表迁移后不再写入
+
+USE infomanagement;
+
+CREATE TABLE IF NOT EXISTS balance_ledger (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    entry_type ENUM('recharge', 'payment', 'refund') NOT NULL COMMENT '流水类型',
+    amount DECIMAL(10,2) NOT NULL COMMENT '变动金额，入账为正，出账为负',
+    channel VARCHAR(50) COMMENT '支付方式',
+    biz_no VARCHAR(64) NOT NULL COMMENT '业务单号：充值流水号或订单号',
+    remark VARCHAR(255) COMMENT '备注',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    FOREIGN KEY (user_id) REFERENCES users(id),
+    UNIQUE KEY uk_entry_type_biz_no (entry_type, biz_no),
+    INDEX idx_user_type_create_time_id (user_id, entry_type, create_time, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='余额流水表';
+
+-- 迁移成功的充值记录
+INSERT IGNORE INTO balance_ledger (user_id, entry_type, amount, channel, biz_no, remark, create_time)
+SELECT user_id, 'recharge', amount, payment_method, COALESCE(transaction_id, CONCAT('RR', id)), remark, create_time
+FROM recharge_records
+WHERE status = 'success';
+
+-- 验证
+SELECT COUNT(*) FROM recharge_records WHERE status = 'success';
+SELECT COUNT(*) FROM balance_ledger WHERE entry_type = 'recharge';
@@ -0,0 +1,42 @@
+-- 数据库更新脚本：创建收藏列表投影表并回填已有收藏
+-- 用途：收藏列表不再对 favorites、forum_posts、learning_activities、users 做多表JOIN和CASE计算，
+--       改为按 (user_id, create_time, favorite_id) 索引范围扫描投影表
+
+USE infomanagement;
+
+CREATE TABLE IF NOT EXISTS favorite_feed (
+    favorite_id BIGINT PRIMARY KEY COMMENT '收藏ID',
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    post_id BIGINT NOT NULL COMMENT '帖子/活动ID',
+    post_type ENUM('forum', 'learning') NOT NULL COMMENT '类型',
+    title VARCHAR(200) COMMENT '内容标题',
+    author_id BIGINT COMMENT '内容作者ID',
+    author VARCHAR(100) COMMENT '内容作者昵称',
+    views INT NOT NULL DEFAULT 0 COMMENT '浏览量',
+    post_create_time TIMESTAMP NULL COMMENT '内容发布时间',
+    create_time TIMESTAMP NOT NULL COMMENT '收藏时间',
+    INDEX idx_user_create_time_id (user_id, create_time, favorite_id),
+    INDEX idx_post (post_type, post_id),
+    INDEX idx_author_id (author_id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='收藏列表投影表';
+
+-- 回填已有收藏
+INSERT IGNORE INTO favorite_feed (favorite_id, user_id, post_id, post_type, title, author_id, author, views,
+                                  post_create_time, create_time)
+SELECT f.id, f.user_id, f.post_id, f.post_type,
+       CASE WHEN f.post_type = 'forum' THEN fp.title WHEN f.post_type = 'learning' THEN la.title ELSE '未知标题' END,
+       CASE WHEN f.post_type = 'forum' THEN fp.author_id WHEN f.post_type = 'learning' THEN la.author_id END,
+       CASE WHEN f.post_type = 'forum' THEN u1.nickname WHEN f.post_type = 'learning' THEN u2.nickname ELSE '未知作者' END,
+       COALESCE(CASE WHEN f.post_type = 'forum' THEN fp.views WHEN f.post_type = 'learning' THEN la.views END, 0),
+       CASE WHEN f.post_type = 'forum' THEN fp.create_time WHEN f.post_type = 'learning' THEN la.create_time
+            ELSE f.create_time END,
+       f.create_time
+FROM favorites f
+LEFT JOIN forum_posts fp ON f.post_type = 'forum' AND f.post_id = fp.id
+LEFT JOIN learning_activities la ON f.post_type = 'learning' AND f.post_id = la.id
+LEFT JOIN users u1 ON fp.author_id = u1.id
+LEFT JOIN users u2 ON la.author_id = u2.id;
+
+-- 验证
+SELECT COUNT(*) FROM favorites;
+SELECT COUNT(*) FROM favorite_feed;
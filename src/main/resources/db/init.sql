@@ -28,7 +28,8 @@ CREATE TABLE forum_posts (
     image_url VARCHAR(500) COMMENT '图片URL',
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
-    FOREIGN KEY (author_id) REFERENCES users(id)
+    FOREIGN KEY (author_id) REFERENCES users(id),
+    INDEX idx_create_time_id (create_time, id)
 ) COMMENT '论坛帖子表';
 
 -- 学习活动表
@@ -44,7 +45,8 @@ CREATE TABLE learning_activities (
     status ENUM('active', 'closed') DEFAULT 'active' COMMENT '状态',
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
-    FOREIGN KEY (author_id) REFERENCES users(id)
+    FOREIGN KEY (author_id) REFERENCES users(id),
+    INDEX idx_create_time_id (create_time, id)
 ) COMMENT '学习活动表';
 
 -- 收藏表
@@ -58,6 +60,23 @@ CREATE TABLE favorites (
     UNIQUE KEY unique_favorite (user_id, post_id, post_type)
 ) COMMENT '收藏表';
 
+-- 收藏列表投影表：冗余保存内容标题、作者和浏览量，收藏列表按用户做一次索引范围扫描
+CREATE TABLE favorite_feed (
+    favorite_id BIGINT PRIMARY KEY COMMENT '收藏ID',
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    post_id BIGINT NOT NULL COMMENT '帖子/活动ID',
+    post_type ENUM('forum', 'learning') NOT NULL COMMENT '类型',
+    title VARCHAR(200) COMMENT '内容标题',
+    author_id BIGINT COMMENT '内容作者ID',
+    author VARCHAR(100) COMMENT '内容作者昵称',
+    views INT NOT NULL DEFAULT 0 COMMENT '浏览量',
+    post_create_time TIMESTAMP NULL COMMENT '内容发布时间',
+    create_time TIMESTAMP NOT NULL COMMENT '收藏时间',
+    INDEX idx_user_create_time_id (user_id, create_time, favorite_id),
+    INDEX idx_post (post_type, post_id),
+    INDEX idx_author_id (author_id)
+) COMMENT '收藏列表投影表';
+
 -- 预约表
 CREATE TABLE reservations (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
@@ -80,7 +99,9 @@ CREATE TABLE products (
     category VARCHAR(50) COMMENT '分类',
     image_url VARCHAR(500) COMMENT '图片URL',
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
-    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间'
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    INDEX idx_create_time_id (create_time, id),
+    INDEX idx_category_create_time_id (category, create_time, id)
 ) COMMENT '商品表';
 
 -- 购物车表
@@ -108,7 +129,8 @@ CREATE TABLE orders (
     remark TEXT COMMENT '订单备注',
     create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
-    FOREIGN KEY (user_id) REFERENCES users(id)
+    FOREIGN KEY (user_id) REFERENCES users(id),
+    INDEX idx_user_create_time_id (user_id, create_time, id)
 ) COMMENT '订单表';
 
 -- 订单项表
@@ -126,6 +148,21 @@ CREATE TABLE order_items (
     FOREIGN KEY (product_id) REFERENCES products(id)
 ) COMMENT '订单项表';
 
+-- 余额流水表：只追加不修改，users.balance是流水的余额快照；充值记录即recharge类型的流水
+CREATE TABLE balance_ledger (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL COMMENT '用户ID',
+    entry_type ENUM('recharge', 'payment', 'refund') NOT NULL COMMENT '流水类型',
+    amount DECIMAL(10,2) NOT NULL COMMENT '变动金额，入账为正，出账为负',
+    channel VARCHAR(50) COMMENT '支付方式',
+    biz_no VARCHAR(64) NOT NULL COMMENT '业务单号：充值流水号或订单号',
+    remark VARCHAR(255) COMMENT '备注',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    FOREIGN KEY (user_id) REFERENCES users(id),
+    UNIQUE KEY uk_entry_type_biz_no (entry_type, biz_no),
+    INDEX idx_user_type_create_time_id (user_id, entry_type, create_time, id)
+) COMMENT '余额流水表';
+
 -- 插入测试数据
 -- 用户数据 - 使用明文密码，添加初始余额
 INSERT INTO users (username, password, nickname, email, user_type, balance) VALUES 
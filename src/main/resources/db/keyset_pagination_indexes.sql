@@ -0,0 +1,24 @@
+-- 数据库更新脚本：添加游标分页索引
+-- 用途：列表按 (create_time, id) 倒序排列并以此作为游标定位，
+--       索引覆盖排序和定位条件后，任意深度的翻页都只需扫描一页的行数
+
+USE infomanagement;
+
+-- 论坛帖子列表
+ALTER TABLE forum_posts ADD INDEX idx_create_time_id (create_time, id);
+
+-- 学习活动列表
+ALTER TABLE learning_activities ADD INDEX idx_create_time_id (create_time, id);
+
+-- 商品列表（全部 / 按分类）
+ALTER TABLE products ADD INDEX idx_create_time_id (create_time, id);
+ALTER TABLE products ADD INDEX idx_category_create_time_id (category, create_time, id);
+
+-- 用户订单列表
+ALTER TABLE orders ADD INDEX idx_user_create_time_id (user_id, create_time, id);
+
+-- 验证索引
+SHOW INDEX FROM forum_posts;
+SHOW INDEX FROM learning_activities;
+SHOW INDEX FROM products;
+SHOW INDEX FROM orders;
@@ -0,0 +1,66 @@
+package com.example.demo;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 并发测试公共工具：批量创建测试用户，让所有用户同时发起请求
+ */
+public final class ConcurrencyTestSupport {
+
+  private ConcurrencyTestSupport() {
+  }
+
+  /**
+   * 批量创建用户名为 prefix_0 到 prefix_(count-1) 的用户，返回按ID排序的用户ID
+   */
+  public static List<Long> createUsers(JdbcTemplate jdbcTemplate, String prefix, String nickname, int count,
+      BigDecimal balance) {
+    List<Object[]> rows = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      rows.add(new Object[]{prefix + "_" + i, nickname + i, balance});
+    }
+    jdbcTemplate.batchUpdate("INSERT INTO users (username, password, nickname, balance) VALUES (?, 'pwd', ?, ?)",
+        rows);
+    return jdbcTemplate.queryForList("SELECT id FROM users WHERE username LIKE ? ORDER BY id", Long.class,
+        prefix + "_%");
+  }
+
+  /**
+   * 每个用户一个任务，所有任务就绪后同时开始，等待全部结束，返回抛出异常的任务数
+   */
+  public static int runConcurrently(List<Long> userIds, int threads, Consumer<Long> task)
+      throws InterruptedException {
+    AtomicInteger failed = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(userIds.size());
+    for (Long userId : userIds) {
+      executor.submit(() -> {
+        try {
+          start.await();
+          task.accept(userId);
+        } catch (Exception e) {
+          failed.incrementAndGet();
+        } finally {
+          done.countDown();
+        }
+      });
+    }
+    start.countDown();
+    assertTrue(done.await(60, TimeUnit.SECONDS));
+    executor.shutdown();
+    return failed.get();
+  }
+}
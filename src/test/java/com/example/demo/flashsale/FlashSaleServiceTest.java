@@ -0,0 +1,136 @@
+package com.example.demo.flashsale;
+
+import com.example.demo.ConcurrencyTestSupport;
+import com.example.demo.service.OrderService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 秒杀并发测试，商品2（库存200，单价299）和商品3（库存150，单价199）参加秒杀
+ */
+@SpringBootTest(properties = {
+    "flash-sale.product-ids=2,3",
+    "flash-sale.batch-size=20",
+    "spring.datasource.url=jdbc:h2:mem:flashsale;MODE=MySQL;DATABASE_TO_LOWER=TRUE;"
+        + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FlashSaleServiceTest {
+
+  private static final int BUYERS = 400;
+  private static final int STOCK = 150;
+
+  @Autowired
+  private FlashSaleService flashSaleService;
+
+  @Autowired
+  private OrderService orderService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final List<Long> userIds = new ArrayList<>();
+
+  @BeforeAll
+  void setUp() {
+    userIds.addAll(ConcurrencyTestSupport.createUsers(jdbcTemplate, "buyer", "秒杀用户", BUYERS,
+        new BigDecimal("1000")));
+  }
+
+  @Test
+  void concurrentBuyersNeverOversell() throws Exception {
+    Queue<FlashSaleTicket> accepted = new ConcurrentLinkedQueue<>();
+
+    int rejected = ConcurrencyTestSupport.runConcurrently(userIds, 100,
+        userId -> accepted.add(flashSaleService.submit(userId, 3L, 1, Map.of())));
+
+    assertEquals(STOCK, accepted.size());
+    assertEquals(BUYERS - STOCK, rejected);
+    for (FlashSaleTicket ticket : accepted) {
+      awaitDone(ticket);
+      assertEquals(FlashSaleTicket.SUCCESS, ticket.getStatus());
+    }
+    assertEquals(0, stock(3L));
+    assertEquals(STOCK, jdbcTemplate.queryForObject(
+        "SELECT COALESCE(SUM(quantity), 0) FROM order_items WHERE product_id = 3", Integer.class));
+  }
+
+  @Test
+  void failedOrderReturnsTokenAndBuyerCanRetry() throws Exception {
+    Long userId = userIds.get(0);
+    jdbcTemplate.update("UPDATE users SET balance = 0 WHERE id = ?", userId);
+
+    FlashSaleTicket ticket = flashSaleService.submit(userId, 2L, 1, Map.of());
+    awaitDone(ticket);
+    assertEquals(FlashSaleTicket.FAILED, ticket.getStatus());
+    assertEquals(200, stock(2L));
+
+    jdbcTemplate.update("UPDATE users SET balance = 1000 WHERE id = ?", userId);
+    FlashSaleTicket retry = flashSaleService.submit(userId, 2L, 1, Map.of());
+    awaitDone(retry);
+    assertEquals(FlashSaleTicket.SUCCESS, retry.getStatus());
+    assertEquals(199, stock(2L));
+    assertEquals(0, new BigDecimal("701.00").compareTo(jdbcTemplate.queryForObject(
+        "SELECT balance FROM users WHERE id = ?", BigDecimal.class, userId)));
+
+    RuntimeException e = assertThrows(RuntimeException.class,
+        () -> flashSaleService.submit(userId, 2L, 1, Map.of()));
+    assertEquals("您已参与过该商品的秒杀", e.getMessage());
+  }
+
+  @Test
+  void cancelledOrderReturnsTokenAndBuyerCanBuyAgain() throws Exception {
+    Long userId = userIds.get(1);
+    int remaining = remaining(2L);
+
+    FlashSaleTicket ticket = flashSaleService.submit(userId, 2L, 1, Map.of());
+    awaitDone(ticket);
+    assertEquals(FlashSaleTicket.SUCCESS, ticket.getStatus());
+    assertEquals(remaining - 1, remaining(2L));
+
+    orderService.cancelOrder(ticket.getOrderId(), userId);
+    assertEquals(remaining, remaining(2L));
+
+    FlashSaleTicket again = flashSaleService.submit(userId, 2L, 1, Map.of());
+    awaitDone(again);
+    assertEquals(FlashSaleTicket.SUCCESS, again.getStatus());
+    orderService.cancelOrder(again.getOrderId(), userId);
+    assertEquals(remaining, remaining(2L));
+    assertEquals(remaining, stock(2L));
+  }
+
+  private void awaitDone(FlashSaleTicket ticket) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 30_000;
+    while (FlashSaleTicket.PENDING.equals(ticket.getStatus()) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(20);
+    }
+  }
+
+  private int remaining(Long productId) {
+    return flashSaleService.getSaleStats().stream()
+        .filter(stat -> productId.equals(stat.get("productId")))
+        .map(stat -> (Integer) stat.get("remaining"))
+        .findFirst()
+        .orElseThrow();
+  }
+
+  private int stock(Long productId) {
+    return jdbcTemplate.queryForObject("SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+  }
+}
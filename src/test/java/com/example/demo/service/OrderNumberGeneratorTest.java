@@ -0,0 +1,77 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 订单号生成器测试
+ */
+class OrderNumberGeneratorTest {
+
+  private static final int THREADS = 16;
+  private static final int PER_THREAD = 50_000;
+
+  @Test
+  void concurrentGenerationNeverCollides() throws Exception {
+    OrderNumberGenerator generator = new OrderNumberGenerator(42);
+    Set<String> numbers = ConcurrentHashMap.newKeySet(THREADS * PER_THREAD);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    CountDownLatch done = new CountDownLatch(THREADS);
+    for (int t = 0; t < THREADS; t++) {
+      executor.submit(() -> {
+        try {
+          start.await();
+          for (int i = 0; i < PER_THREAD; i++) {
+            numbers.add(generator.next());
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } finally {
+          done.countDown();
+        }
+      });
+    }
+    start.countDown();
+    assertTrue(done.await(60, TimeUnit.SECONDS));
+    executor.shutdown();
+
+    assertEquals(THREADS * PER_THREAD, numbers.size());
+    for (String number : numbers) {
+      assertEquals(28, number.length());
+      assertTrue(number.matches("ORD\\d{17}0042\\d{4}"), number);
+    }
+  }
+
+  @Test
+  void clockMovingBackwardsKeepsNumbersIncreasing() {
+    AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    OrderNumberGenerator generator = new OrderNumberGenerator(7, now::get);
+
+    List<String> numbers = new ArrayList<>();
+    for (int i = 0; i < 15_000; i++) {
+      numbers.add(generator.next());
+    }
+    now.addAndGet(-5_000);
+    for (int i = 0; i < 100; i++) {
+      numbers.add(generator.next());
+    }
+
+    for (int i = 1; i < numbers.size(); i++) {
+      assertTrue(numbers.get(i).compareTo(numbers.get(i - 1)) > 0, numbers.get(i));
+    }
+  }
+}
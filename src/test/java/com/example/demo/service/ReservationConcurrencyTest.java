@@ -0,0 +1,101 @@
+package com.example.demo.service;
+
+import com.example.demo.ConcurrencyTestSupport;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 活动预约并发测试
+ */
+@SpringBootTest
+@ActiveProfiles("h2")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReservationConcurrencyTest {
+
+  private static final int RESERVERS = 1000;
+  private static final int CAPACITY = 50;
+
+  @Autowired
+  private LearningActivityService learningActivityService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  private final List<Long> userIds = new ArrayList<>();
+
+  @BeforeAll
+  void setUp() {
+    userIds.addAll(ConcurrencyTestSupport.createUsers(jdbcTemplate, "reserver", "预约用户", RESERVERS,
+        BigDecimal.ZERO));
+  }
+
+  @Test
+  void concurrentReserversNeverOverbook() throws Exception {
+    Long activityId = createActivity(CAPACITY);
+
+    int rejected = ConcurrencyTestSupport.runConcurrently(userIds, 200,
+        userId -> learningActivityService.reserveActivity(userId, activityId));
+
+    assertEquals(RESERVERS - CAPACITY, rejected);
+    assertEquals(CAPACITY, reservationCount(activityId));
+    assertEquals(CAPACITY, reservedCount(activityId));
+  }
+
+  @Test
+  void duplicateReservationIsRejectedByUniqueKey() {
+    Long activityId = createActivity(10);
+    Long userId = userIds.get(0);
+
+    learningActivityService.reserveActivity(userId, activityId);
+    RuntimeException e = assertThrows(RuntimeException.class,
+        () -> learningActivityService.reserveActivity(userId, activityId));
+
+    assertEquals("您已预约过此活动", e.getMessage());
+    assertEquals(1, reservationCount(activityId));
+    assertEquals(1, reservedCount(activityId));
+  }
+
+  @Test
+  void cancelledSeatCanBeReservedAgain() {
+    Long activityId = createActivity(1);
+    Long first = userIds.get(1);
+    Long second = userIds.get(2);
+
+    learningActivityService.reserveActivity(first, activityId);
+    assertThrows(RuntimeException.class, () -> learningActivityService.reserveActivity(second, activityId));
+
+    learningActivityService.cancelReservation(first, activityId);
+    learningActivityService.reserveActivity(second, activityId);
+
+    assertEquals(1, reservationCount(activityId));
+    assertEquals(1, reservedCount(activityId));
+  }
+
+  private Long createActivity(int capacity) {
+    jdbcTemplate.update("INSERT INTO learning_activities (title, content, author_id, max_capacity) VALUES (?, ?, 1, ?)",
+        "并发预约测试", "并发预约测试", capacity);
+    return jdbcTemplate.queryForObject("SELECT MAX(id) FROM learning_activities", Long.class);
+  }
+
+  private int reservationCount(Long activityId) {
+    return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM reservations WHERE activity_id = ?", Integer.class,
+        activityId);
+  }
+
+  private int reservedCount(Long activityId) {
+    return jdbcTemplate.queryForObject("SELECT reserved_count FROM learning_activities WHERE id = ?", Integer.class,
+        activityId);
+  }
+}
@@ -0,0 +1,172 @@
+-- H2（MySQL兼容模式）测试库结构，与 init.sql 保持一致
+
+CREATE TABLE users (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    username VARCHAR(50) UNIQUE NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    nickname VARCHAR(100),
+    email VARCHAR(100),
+    phone VARCHAR(20),
+    gender ENUM('male', 'female', 'other') DEFAULT 'other',
+    user_type ENUM('user', 'admin') DEFAULT 'user',
+    balance DECIMAL(10,2) DEFAULT 0.00,
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE forum_posts (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    title VARCHAR(200) NOT NULL,
+    content TEXT NOT NULL,
+    author_id BIGINT NOT NULL,
+    views INT DEFAULT 0,
+    image_url VARCHAR(500),
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (author_id) REFERENCES users(id)
+);
+
+CREATE TABLE learning_activities (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    title VARCHAR(200) NOT NULL,
+    content TEXT NOT NULL,
+    author_id BIGINT NOT NULL,
+    views INT DEFAULT 0,
+    image_url VARCHAR(500),
+    reserved_count INT DEFAULT 0,
+    max_capacity INT DEFAULT 100,
+    status ENUM('active', 'closed') DEFAULT 'active',
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (author_id) REFERENCES users(id)
+);
+
+CREATE TABLE favorites (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    post_id BIGINT NOT NULL,
+    post_type ENUM('forum', 'learning') NOT NULL,
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id),
+    CONSTRAINT unique_favorite UNIQUE (user_id, post_id, post_type)
+);
+
+CREATE TABLE favorite_feed (
+    favorite_id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    post_id BIGINT NOT NULL,
+    post_type ENUM('forum', 'learning') NOT NULL,
+    title VARCHAR(200),
+    author_id BIGINT,
+    author VARCHAR(100),
+    views INT NOT NULL DEFAULT 0,
+    post_create_time TIMESTAMP NULL,
+    create_time TIMESTAMP NOT NULL
+);
+
+CREATE TABLE reservations (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    activity_id BIGINT NOT NULL,
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id),
+    FOREIGN KEY (activity_id) REFERENCES learning_activities(id),
+    CONSTRAINT unique_reservation UNIQUE (user_id, activity_id)
+);
+
+CREATE TABLE products (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    name VARCHAR(200) NOT NULL,
+    description TEXT,
+    price DECIMAL(10,2) NOT NULL,
+    original_price DECIMAL(10,2),
+    stock INT DEFAULT 0,
+    category VARCHAR(50),
+    image_url VARCHAR(500),
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+CREATE TABLE cart_items (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    quantity INT DEFAULT 1,
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id),
+    FOREIGN KEY (product_id) REFERENCES products(id),
+    CONSTRAINT unique_cart_item UNIQUE (user_id, product_id)
+);
+
+CREATE TABLE orders (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    order_number VARCHAR(32) UNIQUE NOT NULL,
+    user_id BIGINT NOT NULL,
+    total_amount DECIMAL(10,2) NOT NULL,
+    status ENUM('pending', 'paid', 'shipped', 'completed', 'cancelled') DEFAULT 'pending',
+    payment_method VARCHAR(20) DEFAULT 'balance',
+    shipping_address TEXT,
+    remark TEXT,
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    update_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
+
+CREATE TABLE order_items (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    order_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    product_name VARCHAR(200) NOT NULL,
+    product_price DECIMAL(10,2) NOT NULL,
+    product_image_url VARCHAR(500),
+    quantity INT NOT NULL,
+    subtotal DECIMAL(10,2) NOT NULL,
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (order_id) REFERENCES orders(id),
+    FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+CREATE TABLE balance_ledger (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    entry_type ENUM('recharge', 'payment', 'refund') NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    channel VARCHAR(50),
+    biz_no VARCHAR(64) NOT NULL,
+    remark VARCHAR(255),
+    create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id),
+    CONSTRAINT uk_balance_ledger_entry_type_biz_no UNIQUE (entry_type, biz_no)
+);
+CREATE INDEX idx_balance_ledger_user_type_create_time_id ON balance_ledger (user_id, entry_type, create_time, id);
+
+CREATE INDEX idx_forum_posts_create_time_id ON forum_posts (create_time, id);
+CREATE INDEX idx_learning_activities_create_time_id ON learning_activities (create_time, id);
+CREATE INDEX idx_products_create_time_id ON products (create_time, id);
+CREATE INDEX idx_products_category_create_time_id ON products (category, create_time, id);
+CREATE INDEX idx_orders_user_create_time_id ON orders (user_id, create_time, id);
+CREATE INDEX idx_favorite_feed_user_create_time_id ON favorite_feed (user_id, create_time, favorite_id);
+CREATE INDEX idx_favorite_feed_post ON favorite_feed (post_type, post_id);
+CREATE INDEX idx_favorite_feed_author_id ON favorite_feed (author_id);
+
+INSERT INTO users (username, password, nickname, email, user_type, balance) VALUES
+('admin', 'admin123', '管理员', 'admin@example.com', 'admin', 10000.00),
+('user', 'user123', '普通用户', 'user@example.com', 'user', 5000.00),
+('test_user', 'test123', '测试用户', 'test@example.com', 'user', 3000.00);
+
+INSERT INTO forum_posts (title, content, author_id, views, image_url) VALUES
+('这是第一个测试帖子', '这是测试帖子的内容，欢迎大家参与讨论。', 2, 120, 'https://picsum.photos/400/400?random=1'),
+('技术分享：Spring Boot最佳实践', '在这篇文章中，我将分享一些Spring Boot开发的最佳实践...', 1, 89, 'https://picsum.photos/400/400?random=2'),
+('前端开发心得', 'Vue.js开发过程中遇到的一些问题和解决方案...', 2, 156, 'https://picsum.photos/400/400?random=3');
+
+INSERT INTO learning_activities (title, content, author_id, views, image_url, reserved_count, max_capacity) VALUES
+('摄影活动预约', '本次摄影活动将带你领略美丽的风景，学习专业的摄影技巧...', 1, 120, 'https://picsum.photos/400/400?random=1', 10, 50),
+('编程技术分享会', 'Java开发技术分享，包括Spring Boot、MyBatis等技术栈...', 1, 89, 'https://picsum.photos/400/400?random=2', 25, 100),
+('设计思维工作坊', '学习设计思维方法，提升产品设计能力...', 2, 67, 'https://picsum.photos/400/400?random=3', 15, 30);
+
+INSERT INTO products (name, description, price, original_price, stock, category, image_url) VALUES
+('高级智能手表', '功能强大的智能手表，支持健康监测、运动追踪等功能', 1299.00, 1599.00, 100, 'electronics', 'https://picsum.photos/300/300?random=21'),
+('无线蓝牙耳机', '高品质音效，降噪功能，长续航', 299.00, 399.00, 200, 'electronics', 'https://picsum.photos/300/300?random=22'),
+('时尚背包', '大容量，多功能分层设计', 199.00, 299.00, 150, 'fashion', 'https://picsum.photos/300/300?random=23'),
+('运动鞋', '舒适透气，适合各种运动', 399.00, 499.00, 80, 'sports', 'https://picsum.photos/300/300?random=24');